@@ -442,6 +442,18 @@ public class AsmUtil {
         v.invokespecial("java/lang/StringBuilder", "<init>", "()V", false);
     }
 
+    public static void genStringBuilderConstructor(InstructionAdapter v, int capacity) {
+        // The default capacity is 16
+        if (capacity <= 16) {
+            genStringBuilderConstructor(v);
+            return;
+        }
+        v.visitTypeInsn(NEW, "java/lang/StringBuilder");
+        v.dup();
+        v.iconst(capacity);
+        v.invokespecial("java/lang/StringBuilder", "<init>", "(I)V", false);
+    }
+
     public static void genInvokeAppendMethod(InstructionAdapter v, Type type) {
         type = stringBuilderAppendType(type);
         v.invokevirtual("java/lang/StringBuilder", "append", "(" + type.getDescriptor() + ")Ljava/lang/StringBuilder;", false);
@@ -17,6 +17,8 @@
 package org.jetbrains.kotlin.codegen;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.state.JvmTypeHierarchy;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.org.objectweb.asm.ClassWriter;
 import org.jetbrains.org.objectweb.asm.util.TraceClassVisitor;
@@ -52,7 +54,36 @@ public class ClassBuilderFactories {
     };
 
     @NotNull
-    public static ClassBuilderFactory TEST = new ClassBuilderFactory() {
+    public static ClassBuilderFactory TEST = new TestClassBuilderFactory(null);
+
+    @NotNull
+    public static ClassBuilderFactory BINARIES = new BinariesClassBuilderFactory(null);
+
+    /**
+     * Returns the factory which computes stack map frames with the given hierarchy instead of loading classes,
+     * other factories than {@link #TEST} and {@link #BINARIES} are returned as is
+     */
+    @NotNull
+    public static ClassBuilderFactory withTypeHierarchy(@NotNull ClassBuilderFactory factory, @NotNull JvmTypeHierarchy hierarchy) {
+        if (factory == TEST) {
+            return new TestClassBuilderFactory(hierarchy);
+        }
+        if (factory == BINARIES) {
+            return new BinariesClassBuilderFactory(hierarchy);
+        }
+        return factory;
+    }
+
+    private ClassBuilderFactories() {
+    }
+
+    private static class TestClassBuilderFactory implements ClassBuilderFactory {
+        private final JvmTypeHierarchy hierarchy;
+
+        public TestClassBuilderFactory(@Nullable JvmTypeHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+        }
+
         @NotNull
         @Override
         public ClassBuilderMode getClassBuilderMode() {
@@ -62,7 +93,7 @@ public class ClassBuilderFactories {
         @NotNull
         @Override
         public ClassBuilder newClassBuilder(@NotNull JvmDeclarationOrigin origin) {
-            return new TraceBuilder(new BinaryClassWriter());
+            return new TraceBuilder(new BinaryClassWriter(hierarchy));
         }
 
         @Override
@@ -79,10 +110,15 @@ public class ClassBuilderFactories {
         public byte[] asBytes(ClassBuilder builder) {
             return ((TraceBuilder) builder).binary.toByteArray();
         }
-    };
+    }
+
+    private static class BinariesClassBuilderFactory implements ClassBuilderFactory {
+        private final JvmTypeHierarchy hierarchy;
+
+        public BinariesClassBuilderFactory(@Nullable JvmTypeHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+        }
 
-    @NotNull
-    public static ClassBuilderFactory BINARIES = new ClassBuilderFactory() {
         @NotNull
         @Override
         public ClassBuilderMode getClassBuilderMode() {
@@ -92,7 +128,7 @@ public class ClassBuilderFactories {
         @NotNull
         @Override
         public ClassBuilder newClassBuilder(@NotNull JvmDeclarationOrigin origin) {
-            return new AbstractClassBuilder.Concrete(new BinaryClassWriter());
+            return new AbstractClassBuilder.Concrete(new BinaryClassWriter(hierarchy));
         }
 
         @Override
@@ -105,18 +141,31 @@ public class ClassBuilderFactories {
             ClassWriter visitor = (ClassWriter) builder.getVisitor();
             return visitor.toByteArray();
         }
-    };
-
-    private ClassBuilderFactories() {
     }
 
     private static class BinaryClassWriter extends ClassWriter {
-        public BinaryClassWriter() {
+        private final JvmTypeHierarchy hierarchy;
+
+        public BinaryClassWriter(@Nullable JvmTypeHierarchy hierarchy) {
             super(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+            this.hierarchy = hierarchy;
+        }
+
+        @Override
+        public void visit(int version, int access, @NotNull String name, String signature, String superName, String[] interfaces) {
+            if (hierarchy != null) {
+                // When classes are written on worker threads, they're already recorded on the generating thread
+                hierarchy.recordClass(name, access, superName);
+            }
+            super.visit(version, access, name, signature, superName, interfaces);
         }
 
         @Override
         protected String getCommonSuperClass(@NotNull String type1, @NotNull String type2) {
+            if (hierarchy != null) {
+                return hierarchy.getCommonSuperClass(type1, type2);
+            }
+
             try {
                 return super.getCommonSuperClass(type1, type2);
             }
@@ -30,9 +30,14 @@ import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.backend.common.output.OutputFile;
 import org.jetbrains.kotlin.backend.common.output.OutputFileCollection;
+import org.jetbrains.org.objectweb.asm.ClassReader;
 import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.Method;
+import org.jetbrains.org.objectweb.asm.util.TraceClassVisitor;
 
 import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.*;
 
 public class ClassFileFactory implements OutputFileCollection {
@@ -40,6 +45,8 @@ public class ClassFileFactory implements OutputFileCollection {
     private final ClassBuilderFactory builderFactory;
     private final Map<FqName, PackageCodegen> package2codegen = new HashMap<FqName, PackageCodegen>();
     private final Map<String, ClassBuilderAndSourceFileList> generators = new LinkedHashMap<String, ClassBuilderAndSourceFileList>();
+    private final Set<String> privateInlineFunctions = Collections.synchronizedSet(new HashSet<String>());
+    private final Map<String, byte[]> strippedClasses = new HashMap<String, byte[]>();
 
     private boolean isDone = false;
 
@@ -75,9 +82,39 @@ public class ClassFileFactory implements OutputFileCollection {
             for (PackageCodegen codegen : package2codegen.values()) {
                 codegen.done();
             }
+            if (state.isStripUnusedSyntheticsEnabled() && state.getClassBuilderMode() == ClassBuilderMode.FULL) {
+                stripUnusedSynthetics();
+            }
         }
     }
 
+    private void stripUnusedSynthetics() {
+        Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+        for (Map.Entry<String, ClassBuilderAndSourceFileList> entry : generators.entrySet()) {
+            String relativePath = entry.getKey();
+            classes.put(relativePath.substring(0, relativePath.length() - ".class".length()),
+                        builderFactory.asBytes(entry.getValue().classBuilder));
+        }
+
+        UnusedSyntheticsStripper stripper = new UnusedSyntheticsStripper(classes, privateInlineFunctions);
+        stripper.strip();
+
+        for (String removedClass : stripper.getRemovedClasses()) {
+            generators.remove(removedClass + ".class");
+        }
+        for (Map.Entry<String, byte[]> entry : stripper.getChangedClasses().entrySet()) {
+            strippedClasses.put(entry.getKey() + ".class", entry.getValue());
+        }
+    }
+
+    /**
+     * Private inline functions are removed from the output if they're not referenced after inlining,
+     * see {@link GenerationState#isStripUnusedSyntheticsEnabled()}
+     */
+    public void registerPrivateInlineFunction(@NotNull String ownerInternalName, @NotNull Method method) {
+        privateInlineFunctions.add(UnusedSyntheticsStripper.methodKey(ownerInternalName, method.getName(), method.getDescriptor()));
+    }
+
     @NotNull
     @Override
     public List<OutputFile> asList() {
@@ -162,12 +199,22 @@ public class ClassFileFactory implements OutputFileCollection {
         @NotNull
         @Override
         public byte[] asByteArray() {
+            byte[] strippedBytes = strippedClasses.get(relativeClassFilePath);
+            if (strippedBytes != null) return strippedBytes;
+
             return builderFactory.asBytes(generators.get(relativeClassFilePath).classBuilder);
         }
 
         @NotNull
         @Override
         public String asText() {
+            byte[] strippedBytes = strippedClasses.get(relativeClassFilePath);
+            if (strippedBytes != null) {
+                StringWriter writer = new StringWriter();
+                new ClassReader(strippedBytes).accept(new TraceClassVisitor(new PrintWriter(writer)), 0);
+                return writer.toString();
+            }
+
             return builderFactory.asText(generators.get(relativeClassFilePath).classBuilder);
         }
 
@@ -135,7 +135,7 @@ public class ClosureCodegen extends MemberCodegen<JetElement> {
         }
 
         v.defineClass(element,
-                      V1_6,
+                      state.getClassFileVersion(),
                       ACC_FINAL | ACC_SUPER | visibilityFlag,
                       asmType.getInternalName(),
                       sw.makeJavaGenericSignature(),
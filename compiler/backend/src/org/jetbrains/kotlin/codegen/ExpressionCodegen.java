@@ -43,6 +43,7 @@ import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
 import org.jetbrains.kotlin.codegen.when.SwitchCodegen;
 import org.jetbrains.kotlin.codegen.when.SwitchCodegenUtil;
+import org.jetbrains.kotlin.codegen.when.SwitchGroupCodegen;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.diagnostics.DiagnosticUtils;
 import org.jetbrains.kotlin.lexer.JetTokens;
@@ -73,6 +74,7 @@ import org.jetbrains.kotlin.types.JetType;
 import org.jetbrains.kotlin.types.TypeProjection;
 import org.jetbrains.kotlin.types.TypeUtils;
 import org.jetbrains.kotlin.types.checker.JetTypeChecker;
+import org.jetbrains.org.objectweb.asm.Handle;
 import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
 import org.jetbrains.org.objectweb.asm.Opcodes;
@@ -104,6 +106,16 @@ import static org.jetbrains.org.objectweb.asm.Opcodes.ACC_PRIVATE;
 public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implements LocalLookup {
     private static final Set<DeclarationDescriptor> INTEGRAL_RANGES = KotlinBuiltIns.getInstance().getIntegralRanges();
 
+    private static final String CACHED_PROPERTY_REFERENCE_PREFIX = "$propertyReference";
+
+    private static final Handle LAMBDA_METAFACTORY = new Handle(
+            Opcodes.H_INVOKESTATIC,
+            "java/lang/invoke/LambdaMetafactory",
+            "metafactory",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;" +
+            "Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;"
+    );
+
     private final GenerationState state;
     final JetTypeMapper typeMapper;
     private final BindingContext bindingContext;
@@ -531,6 +543,12 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             }
         }
 
+        AbstractForLoopGenerator stdlibCallGenerator = createStdlibCallLoopGenerator(forExpression);
+        if (stdlibCallGenerator != null) {
+            generateForLoop(stdlibCallGenerator);
+            return StackValue.none();
+        }
+
         JetExpression loopRange = forExpression.getLoopRange();
         JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, loopRange);
         assert loopRangeType != null;
@@ -554,6 +572,93 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         return StackValue.none();
     }
 
+    // Loops over the results of downTo, step, indices and withIndex from the standard library don't create these objects
+    @Nullable
+    private AbstractForLoopGenerator createStdlibCallLoopGenerator(@NotNull JetForExpression forExpression) {
+        JetExpression loopRange = forExpression.getLoopRange();
+        assert loopRange != null;
+        JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, loopRange);
+        ResolvedCall<?> resolvedCall = getResolvedCall(loopRange, bindingContext);
+        if (loopRangeType == null || resolvedCall == null) return null;
+
+        CallableDescriptor descriptor = resolvedCall.getResultingDescriptor();
+        JetExpression receiver = getReceiverExpression(resolvedCall);
+        if (receiver == null) return null;
+
+        if (RangeCodegenUtil.isIntegralProgression(loopRangeType)) {
+            if (RangeCodegenUtil.isDownTo(descriptor)) {
+                JetExpression end = getSingleArgumentExpression(resolvedCall);
+                if (end == null) return null;
+                return new ForInSteppedProgressionLoopGenerator(forExpression, receiver, end, null, true);
+            }
+            if (RangeCodegenUtil.isStep(descriptor)) {
+                ResolvedCall<?> progressionCall = getResolvedCall(receiver, bindingContext);
+                JetExpression step = getSingleArgumentExpression(resolvedCall);
+                if (progressionCall == null || step == null) return null;
+
+                CallableDescriptor progressionDescriptor = progressionCall.getResultingDescriptor();
+                boolean isDownTo = RangeCodegenUtil.isDownTo(progressionDescriptor);
+                if (!isDownTo && !RangeCodegenUtil.isOptimizableRangeTo(progressionDescriptor)) return null;
+
+                JetExpression start = getReceiverExpression(progressionCall);
+                JetExpression end = getSingleArgumentExpression(progressionCall);
+                if (start == null || end == null) return null;
+                return new ForInSteppedProgressionLoopGenerator(forExpression, start, end, step, isDownTo);
+            }
+        }
+
+        if (RangeCodegenUtil.isIndices(descriptor)) {
+            ReceiverParameterDescriptor receiverParameter = descriptor.getExtensionReceiverParameter();
+            assert receiverParameter != null : "indices should be an extension: " + descriptor;
+            Type receiverType = asmType(receiverParameter.getType());
+            if (receiverType.getSort() == Type.ARRAY || receiverType == Type.INT_TYPE ||
+                receiverType.equals(JAVA_STRING_TYPE) || receiverType.equals(Type.getObjectType("java/util/Collection"))) {
+                return new ForInIndicesLoopGenerator(forExpression, receiver, receiverType);
+            }
+            return null;
+        }
+
+        if (RangeCodegenUtil.isWithIndex(descriptor) && isIndexedValueMultiDeclaration(forExpression.getMultiParameter())) {
+            ReceiverParameterDescriptor receiverParameter = descriptor.getExtensionReceiverParameter();
+            assert receiverParameter != null : "withIndex should be an extension: " + descriptor;
+            Type receiverType = asmType(receiverParameter.getType());
+            if (receiverType.getSort() == Type.ARRAY && receiverType.getElementType().getSort() == Type.OBJECT ||
+                receiverType.equals(Type.getObjectType("java/lang/Iterable"))) {
+                return new ForInWithIndexLoopGenerator(forExpression, receiver, receiverType);
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isIndexedValueMultiDeclaration(@Nullable JetMultiDeclaration multiParameter) {
+        if (multiParameter == null) return false;
+
+        List<JetMultiDeclarationEntry> entries = multiParameter.getEntries();
+        if (entries.size() > 2) return false;
+        for (int i = 0; i < entries.size(); i++) {
+            ResolvedCall<FunctionDescriptor> componentCall = bindingContext.get(COMPONENT_RESOLVED_CALL, entries.get(i));
+            if (componentCall == null || !RangeCodegenUtil.isIndexedValueComponent(componentCall.getResultingDescriptor(), i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static JetExpression getReceiverExpression(@NotNull ResolvedCall<?> resolvedCall) {
+        ReceiverValue receiver = resolvedCall.getExtensionReceiver().exists()
+                                 ? resolvedCall.getExtensionReceiver()
+                                 : resolvedCall.getDispatchReceiver();
+        return receiver instanceof ExpressionReceiver ? ((ExpressionReceiver) receiver).getExpression() : null;
+    }
+
+    @Nullable
+    private static JetExpression getSingleArgumentExpression(@NotNull ResolvedCall<?> resolvedCall) {
+        List<? extends ValueArgument> arguments = resolvedCall.getCall().getValueArguments();
+        return arguments.size() == 1 ? arguments.get(0).getArgumentExpression() : null;
+    }
+
     private OwnerKind contextKind() {
         return context.getContextKind();
     }
@@ -657,7 +762,8 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
 
         private void generateMultiVariables(List<JetMultiDeclarationEntry> entries) {
-            for (JetMultiDeclarationEntry variableDeclaration : entries) {
+            for (int i = 0; i < entries.size(); i++) {
+                JetMultiDeclarationEntry variableDeclaration = entries.get(i);
                 final VariableDescriptor componentDescriptor = bindingContext.get(VARIABLE, variableDeclaration);
 
                 @SuppressWarnings("ConstantConditions") final Type componentAsmType = asmType(componentDescriptor.getReturnType());
@@ -675,13 +781,18 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
                 ResolvedCall<FunctionDescriptor> resolvedCall = bindingContext.get(COMPONENT_RESOLVED_CALL, variableDeclaration);
                 assert resolvedCall != null : "Resolved call is null for " + variableDeclaration.getText();
-                Call call = makeFakeCall(new TransientReceiver(elementType));
 
-                StackValue value = invokeFunction(call, resolvedCall, StackValue.local(loopParameterVar, asmElementType));
+                StackValue value = getComponentValue(i, resolvedCall);
                 StackValue.local(componentVarIndex, componentAsmType).store(value, v);
             }
         }
 
+        @NotNull
+        protected StackValue getComponentValue(int componentIndex, @NotNull ResolvedCall<FunctionDescriptor> componentCall) {
+            Call call = makeFakeCall(new TransientReceiver(elementType));
+            return invokeFunction(call, componentCall, StackValue.local(loopParameterVar, asmElementType));
+        }
+
         protected abstract void assignToLoopParameter();
 
         protected abstract void increment(@NotNull Label loopExit);
@@ -1038,14 +1149,20 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
-    private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
-        private int incrementVar;
-        private Type incrementType;
+    private abstract class AbstractForInProgressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
+        protected int incrementVar;
+        protected final Type incrementType;
 
         private int finalVar;
 
-        private ForInProgressionExpressionLoopGenerator(@NotNull JetForExpression forExpression) {
+        private AbstractForInProgressionLoopGenerator(@NotNull JetForExpression forExpression) {
             super(forExpression);
+
+            JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, forExpression.getLoopRange());
+            assert loopRangeType != null;
+            Collection<VariableDescriptor> incrementProp = loopRangeType.getMemberScope().getProperties(Name.identifier("increment"));
+            assert incrementProp.size() == 1 : loopRangeType + " " + incrementProp.size();
+            incrementType = asmType(incrementProp.iterator().next().getType());
         }
 
         @Override
@@ -1059,25 +1176,14 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
             incrementVar = createLoopTempVariable(asmElementType);
 
-            JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, forExpression.getLoopRange());
-            assert loopRangeType != null;
-            Type asmLoopRangeType = asmType(loopRangeType);
-
-            Collection<VariableDescriptor> incrementProp = loopRangeType.getMemberScope().getProperties(Name.identifier("increment"));
-            assert incrementProp.size() == 1 : loopRangeType + " " + incrementProp.size();
-            incrementType = asmType(incrementProp.iterator().next().getType());
-
-            gen(forExpression.getLoopRange(), asmLoopRangeType);
-            v.dup();
-            v.dup();
-
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getIncrement", incrementType, incrementVar);
+            storeProgressionStartEndAndIncrement();
 
             storeFinalVar();
         }
 
+        // Stores the first element to loopParameterVar, the bound to endVar and the increment to incrementVar
+        protected abstract void storeProgressionStartEndAndIncrement();
+
         private void storeFinalVar() {
             if (!isIntegerProgression) {
                 finalVar = -1;
@@ -1191,6 +1297,218 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
+    private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionLoopGenerator {
+        private ForInProgressionExpressionLoopGenerator(@NotNull JetForExpression forExpression) {
+            super(forExpression);
+        }
+
+        @Override
+        protected void storeProgressionStartEndAndIncrement() {
+            JetType loopRangeType = bindingContext.get(EXPRESSION_TYPE, forExpression.getLoopRange());
+            assert loopRangeType != null;
+            Type asmLoopRangeType = asmType(loopRangeType);
+
+            gen(forExpression.getLoopRange(), asmLoopRangeType);
+            v.dup();
+            v.dup();
+
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "getIncrement", incrementType, incrementVar);
+        }
+    }
+
+    // for (i in a downTo b), for (i in a..b step c) or for (i in a downTo b step c)
+    private class ForInSteppedProgressionLoopGenerator extends AbstractForInProgressionLoopGenerator {
+        private final JetExpression start;
+        private final JetExpression end;
+        private final JetExpression step;
+        private final boolean isDownTo;
+
+        private ForInSteppedProgressionLoopGenerator(
+                @NotNull JetForExpression forExpression,
+                @NotNull JetExpression start,
+                @NotNull JetExpression end,
+                @Nullable JetExpression step,
+                boolean isDownTo
+        ) {
+            super(forExpression);
+            this.start = start;
+            this.end = end;
+            this.step = step;
+            this.isDownTo = isDownTo;
+        }
+
+        @Override
+        protected void storeProgressionStartEndAndIncrement() {
+            gen(start, asmElementType);
+            v.store(loopParameterVar, asmElementType);
+
+            gen(end, asmElementType);
+            v.store(endVar, asmElementType);
+
+            if (step == null) {
+                genIncrementConstant(1);
+            }
+            else {
+                gen(step, incrementType);
+                v.store(incrementVar, incrementType);
+                checkStepIsPositive();
+                v.load(incrementVar, incrementType);
+            }
+
+            if (isDownTo) {
+                v.neg(incrementType);
+            }
+            v.store(incrementVar, incrementType);
+        }
+
+        private void genIncrementConstant(int value) {
+            if (incrementType.getSort() == Type.LONG) {
+                v.lconst(value);
+            }
+            else {
+                v.iconst(value);
+            }
+        }
+
+        // The same check as in step() of the standard library
+        private void checkStepIsPositive() {
+            Label positive = new Label();
+            v.load(incrementVar, incrementType);
+            if (incrementType.getSort() == Type.LONG) {
+                v.lconst(0L);
+                v.lcmp();
+            }
+            v.ifgt(positive);
+
+            String exception = "java/lang/IllegalArgumentException";
+            v.anew(Type.getObjectType(exception));
+            v.dup();
+            genStringBuilderConstructor(v);
+            v.aconst("Step must be positive, was: ");
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.load(incrementVar, incrementType);
+            genInvokeAppendMethod(v, incrementType);
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+            v.invokespecial(exception, "<init>", "(Ljava/lang/String;)V", false);
+            v.athrow();
+
+            v.mark(positive);
+        }
+    }
+
+    // for (i in c.indices) over a collection, an array, a string or an Int
+    private class ForInIndicesLoopGenerator extends AbstractForInRangeLoopGenerator {
+        private final JetExpression receiver;
+        private final Type receiverType;
+
+        private ForInIndicesLoopGenerator(@NotNull JetForExpression forExpression, @NotNull JetExpression receiver, @NotNull Type receiverType) {
+            super(forExpression);
+            this.receiver = receiver;
+            this.receiverType = receiverType;
+        }
+
+        @Override
+        protected void storeRangeStartAndEnd() {
+            gen(receiver, receiverType);
+            if (receiverType.getSort() == Type.ARRAY) {
+                v.arraylength();
+            }
+            else if (receiverType.equals(JAVA_STRING_TYPE)) {
+                v.invokevirtual(JAVA_STRING_TYPE.getInternalName(), "length", "()I", false);
+            }
+            else if (receiverType.getSort() == Type.OBJECT) {
+                v.invokeinterface(receiverType.getInternalName(), "size", "()I");
+            }
+            v.iconst(1);
+            v.sub(Type.INT_TYPE);
+            v.store(endVar, Type.INT_TYPE);
+
+            v.iconst(0);
+            v.store(loopParameterVar, Type.INT_TYPE);
+        }
+    }
+
+    // for ((i, e) in c.withIndex()) over an iterable or an array, without creating IndexedValue instances
+    private class ForInWithIndexLoopGenerator extends AbstractForLoopGenerator {
+        private final JetExpression receiver;
+        private final Type receiverType;
+        private final boolean isArray;
+
+        private int indexVar;
+        private int sourceVar;
+        private int valueVar;
+
+        private ForInWithIndexLoopGenerator(@NotNull JetForExpression forExpression, @NotNull JetExpression receiver, @NotNull Type receiverType) {
+            super(forExpression);
+            this.receiver = receiver;
+            this.receiverType = receiverType;
+            this.isArray = receiverType.getSort() == Type.ARRAY;
+        }
+
+        @Override
+        public void beforeLoop() {
+            super.beforeLoop();
+
+            sourceVar = createLoopTempVariable(OBJECT_TYPE);
+            gen(receiver, receiverType);
+            if (!isArray) {
+                v.invokeinterface(receiverType.getInternalName(), "iterator", "()Ljava/util/Iterator;");
+            }
+            v.store(sourceVar, OBJECT_TYPE);
+
+            indexVar = createLoopTempVariable(Type.INT_TYPE);
+            v.iconst(0);
+            v.store(indexVar, Type.INT_TYPE);
+
+            valueVar = createLoopTempVariable(OBJECT_TYPE);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+        }
+
+        @Override
+        public void checkPreCondition(@NotNull Label loopExit) {
+            if (isArray) {
+                v.load(indexVar, Type.INT_TYPE);
+                v.load(sourceVar, OBJECT_TYPE);
+                v.arraylength();
+                v.ificmpge(loopExit);
+            }
+            else {
+                v.load(sourceVar, OBJECT_TYPE);
+                v.invokeinterface("java/util/Iterator", "hasNext", "()Z");
+                v.ifeq(loopExit);
+            }
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+            v.load(sourceVar, OBJECT_TYPE);
+            if (isArray) {
+                v.load(indexVar, Type.INT_TYPE);
+                v.aload(OBJECT_TYPE);
+            }
+            else {
+                v.invokeinterface("java/util/Iterator", "next", "()Ljava/lang/Object;");
+            }
+            v.store(valueVar, OBJECT_TYPE);
+        }
+
+        @NotNull
+        @Override
+        protected StackValue getComponentValue(int componentIndex, @NotNull ResolvedCall<FunctionDescriptor> componentCall) {
+            return componentIndex == 0 ? StackValue.local(indexVar, Type.INT_TYPE) : StackValue.local(valueVar, OBJECT_TYPE);
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+            v.iinc(indexVar, 1);
+        }
+    }
+
 
     @Override
     public StackValue visitBreakExpression(@NotNull JetBreakExpression expression, StackValue receiver) {
@@ -1294,12 +1612,7 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
     @Override
     public StackValue visitStringTemplateExpression(@NotNull JetStringTemplateExpression expression, StackValue receiver) {
         StringBuilder constantValue = new StringBuilder("");
-        final JetStringTemplateEntry[] entries = expression.getEntries();
-
-        if (entries.length == 1 && entries[0] instanceof JetStringTemplateEntryWithExpression) {
-            JetExpression expr = entries[0].getExpression();
-            return genToString(gen(expr), expressionType(expr));
-        }
+        JetStringTemplateEntry[] entries = expression.getEntries();
 
         for (JetStringTemplateEntry entry : entries) {
             if (entry instanceof JetLiteralStringTemplateEntry) {
@@ -1318,26 +1631,118 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             return StackValue.constant(constantValue.toString(), type);
         }
         else {
-            return StackValue.operation(JAVA_STRING_TYPE, new Function1<InstructionAdapter, Unit>() {
-                @Override
-                public Unit invoke(InstructionAdapter v) {
-                    genStringBuilderConstructor(v);
-                    for (JetStringTemplateEntry entry : entries) {
-                        if (entry instanceof JetStringTemplateEntryWithExpression) {
-                            invokeAppend(entry.getExpression());
-                        }
-                        else {
-                            String text = entry instanceof JetEscapeStringTemplateEntry
-                                          ? ((JetEscapeStringTemplateEntry) entry).getUnescapedValue()
-                                          : entry.getText();
-                            v.aconst(text);
-                            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
-                        }
-                    }
-                    v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
-                    return Unit.INSTANCE$;
+            return genStringConcatenation(Collections.<JetExpression>singletonList(expression));
+        }
+    }
+
+    /**
+     * Concatenates string representations of the operands. Nested templates and String.plus chains are flattened into
+     * a single StringBuilder presized for the constant parts, and a single non-constant part is converted by String.valueOf
+     */
+    @NotNull
+    public StackValue genStringConcatenation(@NotNull List<JetExpression> operands) {
+        final List<Object> parts = new ArrayList<Object>();
+        for (JetExpression operand : operands) {
+            collectStringConcatenationParts(operand, parts);
+        }
+
+        if (parts.isEmpty()) {
+            return StackValue.constant("", JAVA_STRING_TYPE);
+        }
+
+        if (parts.size() == 1) {
+            Object part = parts.get(0);
+            if (part instanceof String) {
+                return StackValue.constant(part, JAVA_STRING_TYPE);
+            }
+            JetExpression expr = (JetExpression) part;
+            return genToString(gen(expr), expressionType(expr));
+        }
+
+        return StackValue.operation(JAVA_STRING_TYPE, new Function1<InstructionAdapter, Unit>() {
+            @Override
+            public Unit invoke(InstructionAdapter v) {
+                genStringBuilderConstructor(v, estimateStringBuilderCapacity(parts));
+                appendStringConcatenationParts(parts);
+                v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+                return Unit.INSTANCE$;
+            }
+        });
+    }
+
+    // Parts are either constant strings or expressions, adjacent constants are joined
+    private void collectStringConcatenationParts(@NotNull JetExpression expr, @NotNull List<Object> parts) {
+        JetExpression expression = JetPsiUtil.safeDeparenthesize(expr, false);
+
+        if (expression instanceof JetStringTemplateExpression) {
+            for (JetStringTemplateEntry entry : ((JetStringTemplateExpression) expression).getEntries()) {
+                if (entry instanceof JetLiteralStringTemplateEntry) {
+                    addConstantStringConcatenationPart(entry.getText(), parts);
                 }
-            });
+                else if (entry instanceof JetEscapeStringTemplateEntry) {
+                    addConstantStringConcatenationPart(((JetEscapeStringTemplateEntry) entry).getUnescapedValue(), parts);
+                }
+                else {
+                    collectStringConcatenationParts(entry.getExpression(), parts);
+                }
+            }
+            return;
+        }
+
+        if (expression instanceof JetBinaryExpression) {
+            JetBinaryExpression binaryExpression = (JetBinaryExpression) expression;
+            if (binaryExpression.getOperationToken() == JetTokens.PLUS && binaryExpression.getRight() != null &&
+                expressionType(binaryExpression.getLeft()).equals(JAVA_STRING_TYPE)) {
+                collectStringConcatenationParts(binaryExpression.getLeft(), parts);
+                collectStringConcatenationParts(binaryExpression.getRight(), parts);
+                return;
+            }
+        }
+
+        if (expression instanceof JetConstantExpression) {
+            CompileTimeConstant<?> constant = getCompileTimeConstant(expression, bindingContext);
+            if (constant != null && constant.getValue() instanceof Character) {
+                addConstantStringConcatenationPart(String.valueOf(constant.getValue()), parts);
+                return;
+            }
+        }
+
+        parts.add(expression);
+    }
+
+    private static void addConstantStringConcatenationPart(@NotNull String text, @NotNull List<Object> parts) {
+        if (text.isEmpty()) return;
+
+        int last = parts.size() - 1;
+        if (last >= 0 && parts.get(last) instanceof String) {
+            parts.set(last, parts.get(last) + text);
+        }
+        else {
+            parts.add(text);
+        }
+    }
+
+    private static int estimateStringBuilderCapacity(@NotNull List<Object> parts) {
+        // 16 chars for each non-constant part, as StringBuilder(String) reserves for the rest of the string
+        int capacity = 0;
+        for (Object part : parts) {
+            capacity += part instanceof String ? ((String) part).length() : 16;
+        }
+        return capacity;
+    }
+
+    private void appendStringConcatenationParts(@NotNull List<Object> parts) {
+        for (Object part : parts) {
+            if (part instanceof String) {
+                v.aconst(part);
+                genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            }
+            else {
+                JetExpression expr = (JetExpression) part;
+                Type exprType = expressionType(expr);
+                gen(expr, exprType);
+                genInvokeAppendMethod(v, exprType.getSort() == Type.ARRAY ? OBJECT_TYPE : exprType);
+            }
         }
     }
 
@@ -2181,6 +2586,22 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
                               KotlinSyntheticClass.Kind.SAM_LAMBDA);
         }
 
+        if (state.isJvm8Target() && canAdaptByInvokeDynamic(samType)) {
+            return genSamAdapterByInvokeDynamic(expression, visitor, samType);
+        }
+
+        // A class implementing the SAM interface directly is cached in its INSTANCE field if the reference doesn't capture anything
+        JetExpression deparenthesized = JetPsiUtil.deparenthesize(expression);
+        if (deparenthesized instanceof JetCallableReferenceExpression) {
+            FunctionDescriptor functionDescriptor = bindingContext.get(FUNCTION, deparenthesized);
+            if (functionDescriptor != null) {
+                ResolvedCall<?> resolvedCall =
+                        getResolvedCallWithAssert(((JetCallableReferenceExpression) deparenthesized).getCallableReference(), bindingContext);
+                CallableReferenceGenerationStrategy strategy = new CallableReferenceGenerationStrategy(state, functionDescriptor, resolvedCall);
+                return genClosure(deparenthesized, functionDescriptor, strategy, samType, KotlinSyntheticClass.Kind.SAM_LAMBDA);
+            }
+        }
+
         final Type asmType =
                 state.getSamWrapperClasses().getSamWrapperClass(samType, expression.getContainingJetFile(), getParentCodegen());
 
@@ -2214,6 +2635,82 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         });
     }
 
+    /*
+     * The code of inline functions may be copied into classes compiled for an older target, where invokedynamic is not allowed.
+     * Values of Serializable SAM interfaces are wrapped in a class, because LambdaMetafactory.metafactory creates objects
+     * which can't be serialized.
+     * LambdaMetafactory.metafactory doesn't generate bridges, so adapters of methods specializing a generic method still need a class
+     */
+    private boolean canAdaptByInvokeDynamic(@NotNull SamType samType) {
+        if (isCodeCopiedOnInlining() || isSerializable(samType.getType())) return false;
+
+        SimpleFunctionDescriptor abstractMethod = samType.getAbstractMethod().getOriginal();
+        Method asmMethod = typeMapper.mapSignature(abstractMethod).getAsmMethod();
+        for (FunctionDescriptor overridden : DescriptorUtils.getAllOverriddenDescriptors(abstractMethod)) {
+            if (!typeMapper.mapSignature(overridden.getOriginal()).getAsmMethod().equals(asmMethod)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSerializable(@NotNull JetType type) {
+        for (JetType supertype : TypeUtils.getAllSupertypes(type)) {
+            ClassifierDescriptor classifier = supertype.getConstructor().getDeclarationDescriptor();
+            if (classifier != null && DescriptorUtils.getFqName(classifier).asString().equals("java.io.Serializable")) return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    private StackValue genSamAdapterByInvokeDynamic(
+            @NotNull final JetExpression expression,
+            @NotNull final JetVisitor<StackValue, StackValue> visitor,
+            @NotNull SamType samType
+    ) {
+        final Type samAsmType = typeMapper.mapType(samType.getType());
+        final Type functionType = typeMapper.mapType(samType.getKotlinFunctionType());
+
+        // e.g. compare(Object, Object) is implemented by calling invoke(Object, Object) of Function2
+        final Method samMethod = typeMapper.mapSignature(samType.getAbstractMethod().getOriginal()).getAsmMethod();
+        FunctionDescriptor invokeFunction = samType.getKotlinFunctionType().getMemberScope()
+                .getFunctions(Name.identifier("invoke")).iterator().next().getOriginal();
+        final Method invokeMethod = typeMapper.mapSignature(invokeFunction).getAsmMethod();
+
+        return StackValue.operation(samAsmType, new Function1<InstructionAdapter, Unit>() {
+            @Override
+            public Unit invoke(InstructionAdapter v) {
+                expression.accept(visitor, StackValue.none()).put(functionType, v);
+
+                Label ifNonNull = new Label();
+                Label afterAll = new Label();
+
+                v.dup();
+                v.ifnonnull(ifNonNull);
+
+                // if null: pop function value, put null
+                v.pop();
+                v.aconst(null);
+                v.goTo(afterAll);
+
+                v.mark(ifNonNull);
+                Type samMethodType = Type.getMethodType(samMethod.getDescriptor());
+                v.invokedynamic(
+                        samMethod.getName(),
+                        Type.getMethodDescriptor(samAsmType, functionType),
+                        LAMBDA_METAFACTORY,
+                        new Object[] {
+                                samMethodType,
+                                new Handle(Opcodes.H_INVOKEINTERFACE, functionType.getInternalName(),
+                                           invokeMethod.getName(), invokeMethod.getDescriptor()),
+                                samMethodType
+                        }
+                );
+
+                v.mark(afterAll);
+                return null;
+            }
+        });
+    }
+
     @NotNull
     private PropertyDescriptor accessiblePropertyDescriptor(PropertyDescriptor propertyDescriptor) {
         return context.accessiblePropertyDescriptor(propertyDescriptor);
@@ -2702,19 +3199,61 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
         DeclarationDescriptor containingDeclaration = descriptor.getContainingDeclaration();
         if (containingDeclaration instanceof PackageFragmentDescriptor) {
-            return generateTopLevelPropertyReference(descriptor);
+            return cacheInStaticField(generateTopLevelPropertyReference(descriptor));
         }
         else if (containingDeclaration instanceof ClassDescriptor) {
-            return generateMemberPropertyReference(descriptor, (ClassDescriptor) containingDeclaration);
+            return cacheInStaticField(generateMemberPropertyReference(descriptor, (ClassDescriptor) containingDeclaration));
         }
         else if (containingDeclaration instanceof ScriptDescriptor) {
-            return generateMemberPropertyReference(descriptor, ((ScriptDescriptor) containingDeclaration).getClassDescriptor());
+            return cacheInStaticField(
+                    generateMemberPropertyReference(descriptor, ((ScriptDescriptor) containingDeclaration).getClassDescriptor()));
         }
         else {
             throw new UnsupportedOperationException("Unsupported callable reference container: " + containingDeclaration);
         }
     }
 
+    /**
+     * Property references don't depend on the place of evaluation, so they're created once and cached in a static field
+     * of the current class. The field is volatile, so the cached object is safely published to other threads.
+     * Concurrent first evaluations may each create an equal object; one of them stays in the field
+     */
+    @NotNull
+    private StackValue cacheInStaticField(@NotNull final StackValue value) {
+        if (state.getClassBuilderMode() != ClassBuilderMode.FULL || isCodeCopiedOnInlining()) return value;
+
+        final String owner = parentCodegen.getClassName();
+        final String fieldName = parentCodegen.declareCachedValueField(CACHED_PROPERTY_REFERENCE_PREFIX, value.type);
+        if (fieldName == null) return value;
+
+        return StackValue.operation(value.type, new Function1<InstructionAdapter, Unit>() {
+            @Override
+            public Unit invoke(InstructionAdapter v) {
+                Label cached = new Label();
+                v.getstatic(owner, fieldName, value.type.getDescriptor());
+                v.dup();
+                v.ifnonnull(cached);
+                v.pop();
+                value.put(value.type, v);
+                v.dup();
+                v.putstatic(owner, fieldName, value.type.getDescriptor());
+                v.mark(cached);
+                return Unit.INSTANCE$;
+            }
+        });
+    }
+
+    // Code of inline functions and of lambdas passed to them is copied into other classes which don't have the fields of this one
+    private boolean isCodeCopiedOnInlining() {
+        for (CodegenContext<?> current = context; current != null; current = current.getParentContext()) {
+            if (current instanceof MethodContext &&
+                (((MethodContext) current).isInlineFunction() || ((MethodContext) current).isInliningLambda())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void checkReflectionIsAvailable(@NotNull JetExpression expression) {
         if (findClassAcrossModuleDependencies(state.getModule(), JvmAbi.REFLECTION_FACTORY_IMPL) == null) {
             state.getDiagnostics().report(ErrorsJvm.NO_REFLECTION_IN_CLASS_PATH.on(expression, expression));
@@ -3336,23 +3875,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
     }
 
     public void invokeAppend(JetExpression expr) {
-        if (expr instanceof JetBinaryExpression) {
-            JetBinaryExpression binaryExpression = (JetBinaryExpression) expr;
-            if (binaryExpression.getOperationToken() == JetTokens.PLUS) {
-                JetExpression left = binaryExpression.getLeft();
-                JetExpression right = binaryExpression.getRight();
-                Type leftType = expressionType(left);
-
-                if (leftType.equals(JAVA_STRING_TYPE)) {
-                    invokeAppend(left);
-                    invokeAppend(right);
-                    return;
-                }
-            }
-        }
-        Type exprType = expressionType(expr);
-        gen(expr, exprType);
-        genInvokeAppendMethod(v, exprType.getSort() == Type.ARRAY ? OBJECT_TYPE : exprType);
+        List<Object> parts = new ArrayList<Object>();
+        collectStringConcatenationParts(expr, parts);
+        appendStringConcatenationParts(parts);
     }
 
     @Nullable
@@ -4085,13 +4610,29 @@ The "returned" value of try expression with no finally is either the last expres
 
                 Label end = new Label();
                 boolean hasElse = JetPsiUtil.checkWhenExpressionHasSingleElse(expression);
+                SwitchCodegenUtil.SwitchGroupKind switchGroupKind =
+                        subjectLocal != -1 ? SwitchCodegenUtil.getSwitchGroupKind(expression, subjectType, bindingContext) : null;
 
+                List<JetWhenEntry> entries = expression.getEntries();
                 Label nextCondition = null;
-                for (JetWhenEntry whenEntry : expression.getEntries()) {
+                for (int entryIndex = 0; entryIndex < entries.size(); entryIndex++) {
+                    JetWhenEntry whenEntry = entries.get(entryIndex);
                     if (nextCondition != null) {
                         v.mark(nextCondition);
                     }
                     nextCondition = new Label();
+
+                    int switchGroupSize = switchGroupKind != null
+                                          ? SwitchCodegenUtil.getSwitchGroupSize(expression, entryIndex, switchGroupKind, bindingContext)
+                                          : 0;
+                    if (switchGroupSize > 0) {
+                        List<JetWhenEntry> groupEntries = entries.subList(entryIndex, entryIndex + switchGroupSize);
+                        generateWhenSwitchGroup(expression, switchGroupKind, subjectLocal, subjectType, groupEntries, resultType,
+                                                nextCondition, end);
+                        entryIndex += switchGroupSize - 1;
+                        continue;
+                    }
+
                     FrameMap.Mark mark = myFrameMap.mark();
                     Label thisEntry = new Label();
                     if (!whenEntry.isElse()) {
@@ -4131,6 +4672,33 @@ The "returned" value of try expression with no finally is either the last expres
         });
     }
 
+    // Constant entries of a when which also has other entries: a switch to the entries, falling through to the next condition
+    private void generateWhenSwitchGroup(
+            @NotNull JetWhenExpression expression,
+            @NotNull SwitchCodegenUtil.SwitchGroupKind kind,
+            int subjectLocal,
+            @NotNull Type subjectType,
+            @NotNull List<JetWhenEntry> entries,
+            @NotNull Type resultType,
+            @NotNull Label nextCondition,
+            @NotNull Label end
+    ) {
+        List<Label> entryLabels = new ArrayList<Label>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            entryLabels.add(new Label());
+        }
+
+        new SwitchGroupCodegen(expression, kind, this, subjectLocal, subjectType).generate(entries, entryLabels, nextCondition);
+
+        for (int i = 0; i < entries.size(); i++) {
+            v.visitLabel(entryLabels.get(i));
+            FrameMap.Mark mark = myFrameMap.mark();
+            gen(entries.get(i).getExpression(), resultType);
+            mark.dropTo();
+            v.goTo(end);
+        }
+    }
+
     public void putUnitInstanceOntoStackForNonExhaustiveWhen(
             @NotNull JetWhenExpression expression
     ) {
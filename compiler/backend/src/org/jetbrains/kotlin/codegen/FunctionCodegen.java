@@ -148,6 +148,12 @@ public class FunctionCodegen {
                                        jvmSignature.getGenericsSignature(),
                                        getThrownExceptions(functionDescriptor, typeMapper));
 
+        if (state.isStripUnusedSyntheticsEnabled() && (flags & ACC_PRIVATE) != 0 &&
+            functionDescriptor instanceof SimpleFunctionDescriptor &&
+            ((SimpleFunctionDescriptor) functionDescriptor).getInlineStrategy().isInline()) {
+            state.getFactory().registerPrivateInlineFunction(v.getThisName(), asmMethod);
+        }
+
         if (owner instanceof PackageFacadeContext) {
             Type ownerType = ((PackageFacadeContext) owner).getDelegateToClassType();
             v.getSerializationBindings().put(IMPL_CLASS_NAME_FOR_CALLABLE, functionDescriptor, shortNameByAsmType(ownerType));
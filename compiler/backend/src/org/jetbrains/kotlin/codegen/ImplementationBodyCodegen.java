@@ -201,7 +201,7 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
             access |= ACC_ENUM;
         }
         List<String> interfaces = signature.getInterfaces();
-        v.defineClass(myClass, V1_6,
+        v.defineClass(myClass, state.getClassFileVersion(),
                       access,
                       signature.getName(),
                       signature.getJavaGenericSignature(),
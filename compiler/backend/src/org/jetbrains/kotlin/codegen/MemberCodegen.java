@@ -35,6 +35,7 @@ import org.jetbrains.kotlin.psi.*;
 import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.BindingContextUtils;
 import org.jetbrains.kotlin.resolve.BindingTrace;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
 import org.jetbrains.kotlin.resolve.TemporaryBindingTrace;
 import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
 import org.jetbrains.kotlin.resolve.constants.CompileTimeConstant;
@@ -78,6 +79,7 @@ public abstract class MemberCodegen<T extends JetElement/* TODO: & JetDeclaratio
 
     protected ExpressionCodegen clInit;
     private NameGenerator inlineNameGenerator;
+    private int cachedValueFieldCount;
 
     private SourceMapper sourceMapper;
 
@@ -498,6 +500,20 @@ public abstract class MemberCodegen<T extends JetElement/* TODO: & JetDeclaratio
         return v.getThisName();
     }
 
+    /**
+     * Declares a synthetic static field in which the code of this class caches a value computed on the first use.
+     * The field is volatile, so a thread which reads a value written by another thread also sees the initialized state
+     * of the value. Returns null if the class can't have such fields, i.e. it's an interface
+     */
+    @Nullable
+    public String declareCachedValueField(@NotNull String prefix, @NotNull Type type) {
+        if (DescriptorUtils.isTrait(context.getContextDescriptor()) && context.getContextKind() != OwnerKind.TRAIT_IMPL) return null;
+
+        String name = prefix + "$" + cachedValueFieldCount++;
+        v.newField(NO_ORIGIN, ACC_STATIC | ACC_VOLATILE | ACC_SYNTHETIC, name, type.getDescriptor(), null, null);
+        return name;
+    }
+
     @NotNull
     public FieldOwnerContext<?> getContext() {
         return context;
@@ -103,7 +103,7 @@ public class PackageCodegen {
                         PackageFacade(packageFragment == null ? compiledPackageFragment : packageFragment),
                         packageClassType, PackagePartClassUtils.getPackageFilesWithCallables(files)
                 );
-                v.defineClass(sourceFile, V1_6,
+                v.defineClass(sourceFile, state.getClassFileVersion(),
                               ACC_PUBLIC | ACC_FINAL,
                               packageClassType.getInternalName(),
                               null,
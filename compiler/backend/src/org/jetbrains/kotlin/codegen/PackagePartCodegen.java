@@ -47,7 +47,7 @@ public class PackagePartCodegen extends MemberCodegen<JetFile> {
 
     @Override
     protected void generateDeclaration() {
-        v.defineClass(element, V1_6,
+        v.defineClass(element, state.getClassFileVersion(),
                       ACC_PUBLIC | ACC_FINAL,
                       packagePartType.getInternalName(),
                       null,
@@ -20,8 +20,7 @@ import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.builtins.PrimitiveType;
-import org.jetbrains.kotlin.descriptors.CallableDescriptor;
-import org.jetbrains.kotlin.descriptors.ClassifierDescriptor;
+import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.name.FqNameUnsafe;
 import org.jetbrains.kotlin.name.Name;
@@ -37,6 +36,7 @@ import static org.jetbrains.kotlin.codegen.AsmUtil.isPrimitiveNumberClassDescrip
 public class RangeCodegenUtil {
     private static final ImmutableMap<FqName, PrimitiveType> RANGE_TO_ELEMENT_TYPE;
     private static final ImmutableMap<FqName, PrimitiveType> PROGRESSION_TO_ELEMENT_TYPE;
+    private static final FqName INDEXED_VALUE_FQ_NAME = BUILT_INS_PACKAGE_FQ_NAME.child(Name.identifier("IndexedValue"));
 
     static {
         ImmutableMap.Builder<FqName, PrimitiveType> rangeBuilder = ImmutableMap.builder();
@@ -132,6 +132,51 @@ public class RangeCodegenUtil {
         return false;
     }
 
+    // Ranges of values which can be switch keys
+    public static boolean isIntLikeRange(@NotNull JetType rangeType) {
+        if (rangeType.isMarkedNullable()) return false;
+        PrimitiveType elementType = getPrimitiveRangeElementType(rangeType);
+        return elementType == PrimitiveType.INT || elementType == PrimitiveType.CHAR ||
+               elementType == PrimitiveType.SHORT || elementType == PrimitiveType.BYTE;
+    }
+
+    public static boolean isIntegralProgression(@NotNull JetType rangeType) {
+        if (rangeType.isMarkedNullable()) return false;
+        PrimitiveType elementType = getPrimitiveProgressionElementType(rangeType);
+        return elementType != null && elementType != PrimitiveType.FLOAT && elementType != PrimitiveType.DOUBLE &&
+               elementType != PrimitiveType.BOOLEAN;
+    }
+
+    public static boolean isDownTo(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInBuiltInsPackage(descriptor, "downTo");
+    }
+
+    public static boolean isStep(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInBuiltInsPackage(descriptor, "step");
+    }
+
+    public static boolean isIndices(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInBuiltInsPackage(descriptor, "indices");
+    }
+
+    public static boolean isWithIndex(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInBuiltInsPackage(descriptor, "withIndex");
+    }
+
+    // component1() is the index and component2() is the value
+    public static boolean isIndexedValueComponent(@NotNull CallableDescriptor descriptor, int componentIndex) {
+        if (!descriptor.getName().asString().equals("component" + (componentIndex + 1))) return false;
+        DeclarationDescriptor container = descriptor.getContainingDeclaration();
+        return container instanceof ClassDescriptor && DescriptorUtils.getFqName(container).equals(INDEXED_VALUE_FQ_NAME.toUnsafe());
+    }
+
+    private static boolean isTopLevelInBuiltInsPackage(@NotNull CallableDescriptor descriptor, @NotNull String name) {
+        if (!descriptor.getName().asString().equals(name) || descriptor.getExtensionReceiverParameter() == null) return false;
+        DeclarationDescriptor container = descriptor.getContainingDeclaration();
+        return container instanceof PackageFragmentDescriptor &&
+               ((PackageFragmentDescriptor) container).getFqName().equals(BUILT_INS_PACKAGE_FQ_NAME);
+    }
+
     public static class BinaryCall {
         public final JetExpression left;
         public final JetExpression op;
@@ -42,7 +42,7 @@ public class TraitImplBodyCodegen extends ClassBodyCodegen {
 
     @Override
     protected void generateDeclaration() {
-        v.defineClass(myClass, V1_6,
+        v.defineClass(myClass, state.getClassFileVersion(),
                       ACC_PUBLIC | ACC_FINAL,
                       typeMapper.mapTraitImpl(descriptor).getInternalName(),
                       null,
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
+import org.jetbrains.org.objectweb.asm.ClassReader;
+import org.jetbrains.org.objectweb.asm.ClassWriter;
+import org.jetbrains.org.objectweb.asm.Handle;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.tree.*;
+
+import java.util.*;
+
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Removes the code which is no longer used after all call sites of the module were inlined: synthetic accessors,
+ * anonymous classes and private inline functions.
+ *
+ * Lambdas inlined into the class which declares the accessed private members still call the accessors of that class,
+ * such calls are replaced with the field access or the call the accessor consists of. After that all other classes
+ * and methods of the module are roots: members referenced from the code of the roots, transitively, are kept.
+ */
+class UnusedSyntheticsStripper {
+    private static final String ACCESSOR_PREFIX = "access$";
+
+    private final Map<String, ClassNode> classes = new LinkedHashMap<String, ClassNode>();
+    private final Map<String, MethodNode> methods = new HashMap<String, MethodNode>();
+    private final Map<String, AbstractInsnNode> forwardingAccessors = new HashMap<String, AbstractInsnNode>();
+    private final Set<String> privateInlineFunctions;
+
+    private final Set<String> liveClasses = new HashSet<String>();
+    private final Set<String> liveMethods = new HashSet<String>();
+    private final Deque<String> methodsToVisit = new ArrayDeque<String>();
+
+    private final Set<String> classesWithInlinedAccessors = new HashSet<String>();
+    private final Set<String> removedClasses = new HashSet<String>();
+    private final Map<String, byte[]> changedClasses = new HashMap<String, byte[]>();
+
+    /**
+     * @param classes bytes of all the classes of the module by their internal names
+     * @param privateInlineFunctions private inline functions of the module as {@code owner.name + descriptor}
+     */
+    public UnusedSyntheticsStripper(@NotNull Map<String, byte[]> classes, @NotNull Set<String> privateInlineFunctions) {
+        this.privateInlineFunctions = privateInlineFunctions;
+
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            ClassNode classNode = new ClassNode();
+            new ClassReader(entry.getValue()).accept(classNode, 0);
+            this.classes.put(entry.getKey(), classNode);
+
+            for (MethodNode method : classNode.methods) {
+                String key = methodKey(classNode.name, method.name, method.desc);
+                methods.put(key, method);
+
+                AbstractInsnNode forwarded = isAccessor(method) ? getForwardedInstruction(method) : null;
+                if (forwarded != null) {
+                    forwardingAccessors.put(key, forwarded);
+                }
+            }
+        }
+    }
+
+    public void strip() {
+        for (ClassNode classNode : classes.values()) {
+            inlineAccessorCalls(classNode);
+        }
+
+        for (ClassNode classNode : classes.values()) {
+            if (!isRemovableClass(classNode)) {
+                markClass(classNode.name);
+            }
+        }
+
+        while (!methodsToVisit.isEmpty()) {
+            String key = methodsToVisit.poll();
+            visitMethod(key.substring(0, key.indexOf('.')), methods.get(key));
+        }
+
+        for (ClassNode classNode : classes.values()) {
+            if (!liveClasses.contains(classNode.name)) {
+                removedClasses.add(classNode.name);
+            }
+        }
+
+        for (ClassNode classNode : classes.values()) {
+            boolean changed = removeUnusedMembers(classNode) || classesWithInlinedAccessors.contains(classNode.name);
+            if (liveClasses.contains(classNode.name) && changed) {
+                ClassWriter writer = new ClassWriter(0);
+                classNode.accept(writer);
+                changedClasses.put(classNode.name, writer.toByteArray());
+            }
+        }
+    }
+
+    @NotNull
+    public Set<String> getRemovedClasses() {
+        return removedClasses;
+    }
+
+    /**
+     * Returns new bytes of the classes from which unused members were removed
+     */
+    @NotNull
+    public Map<String, byte[]> getChangedClasses() {
+        return changedClasses;
+    }
+
+    private static boolean isRemovableClass(@NotNull ClassNode classNode) {
+        return InlineCodegenUtil.isAnonymousClass(classNode.name);
+    }
+
+    private boolean isRemovableMethod(@NotNull String owner, @NotNull MethodNode method) {
+        return isAccessor(method) || privateInlineFunctions.contains(methodKey(owner, method.name, method.desc));
+    }
+
+    private static boolean isAccessor(@NotNull MethodNode method) {
+        return (method.access & ACC_STATIC) != 0 && (method.access & ACC_SYNTHETIC) != 0 && method.name.startsWith(ACCESSOR_PREFIX);
+    }
+
+    /**
+     * Returns the only instruction of an accessor which loads all its parameters in order and returns the result of the instruction
+     */
+    @Nullable
+    private static AbstractInsnNode getForwardedInstruction(@NotNull MethodNode accessor) {
+        List<AbstractInsnNode> insns = new ArrayList<AbstractInsnNode>();
+        for (AbstractInsnNode insn = accessor.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            // Labels, line numbers and frames
+            if (insn.getOpcode() >= 0) {
+                insns.add(insn);
+            }
+        }
+
+        Type[] argumentTypes = Type.getArgumentTypes(accessor.desc);
+        Type returnType = Type.getReturnType(accessor.desc);
+        if (insns.size() != argumentTypes.length + 2) return null;
+
+        int slot = 0;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            AbstractInsnNode insn = insns.get(i);
+            if (insn.getOpcode() != argumentTypes[i].getOpcode(ILOAD) || ((VarInsnNode) insn).var != slot) return null;
+            slot += argumentTypes[i].getSize();
+        }
+
+        AbstractInsnNode forwarded = insns.get(argumentTypes.length);
+        if (insns.get(argumentTypes.length + 1).getOpcode() != returnType.getOpcode(IRETURN)) return null;
+
+        if (forwarded instanceof FieldInsnNode) {
+            FieldInsnNode fieldInsn = (FieldInsnNode) forwarded;
+            boolean isGet = fieldInsn.getOpcode() == GETFIELD || fieldInsn.getOpcode() == GETSTATIC;
+            boolean isStatic = fieldInsn.getOpcode() == GETSTATIC || fieldInsn.getOpcode() == PUTSTATIC;
+            int consumed = (isStatic ? 0 : 1) + (isGet ? 0 : 1);
+            Type resultType = isGet ? Type.getType(fieldInsn.desc) : Type.VOID_TYPE;
+            return consumed == argumentTypes.length && resultType.equals(returnType) ? forwarded : null;
+        }
+        if (forwarded instanceof MethodInsnNode) {
+            MethodInsnNode methodInsn = (MethodInsnNode) forwarded;
+            if ("<init>".equals(methodInsn.name)) return null;
+            int consumed = Type.getArgumentTypes(methodInsn.desc).length + (methodInsn.getOpcode() == INVOKESTATIC ? 0 : 1);
+            return consumed == argumentTypes.length && Type.getReturnType(methodInsn.desc).equals(returnType) ? forwarded : null;
+        }
+        return null;
+    }
+
+    // Private members accessed by an accessor are accessible from the code of the class which declares the accessor
+    private void inlineAccessorCalls(@NotNull ClassNode classNode) {
+        for (MethodNode method : classNode.methods) {
+            for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                if (insn.getOpcode() != INVOKESTATIC) continue;
+
+                MethodInsnNode methodInsn = (MethodInsnNode) insn;
+                if (!classNode.name.equals(methodInsn.owner)) continue;
+
+                AbstractInsnNode forwarded = forwardingAccessors.get(methodKey(methodInsn.owner, methodInsn.name, methodInsn.desc));
+                if (forwarded == null) continue;
+
+                AbstractInsnNode replacement = forwarded.clone(Collections.<LabelNode, LabelNode>emptyMap());
+                method.instructions.set(insn, replacement);
+                insn = replacement;
+                classesWithInlinedAccessors.add(classNode.name);
+            }
+        }
+    }
+
+    private void markClass(@Nullable String internalName) {
+        if (internalName == null) return;
+
+        ClassNode classNode = classes.get(internalName);
+        if (classNode == null || !liveClasses.add(internalName)) return;
+
+        markClass(classNode.superName);
+        for (String anInterface : classNode.interfaces) {
+            markClass(anInterface);
+        }
+        if (classNode.outerClass != null) {
+            markClass(classNode.outerClass);
+            if (classNode.outerMethod != null) {
+                markMethod(classNode.outerClass, classNode.outerMethod, classNode.outerMethodDesc);
+            }
+        }
+        for (FieldNode field : classNode.fields) {
+            markType(Type.getType(field.desc));
+        }
+        for (MethodNode method : classNode.methods) {
+            if (!isRemovableMethod(internalName, method)) {
+                markMethod(internalName, method.name, method.desc);
+            }
+        }
+    }
+
+    private void markMethod(@NotNull String owner, @NotNull String name, @NotNull String desc) {
+        String key = methodKey(owner, name, desc);
+        if (methods.containsKey(key) && liveMethods.add(key)) {
+            methodsToVisit.add(key);
+        }
+    }
+
+    private void markType(@NotNull Type type) {
+        switch (type.getSort()) {
+            case Type.ARRAY:
+                markType(type.getElementType());
+                break;
+            case Type.OBJECT:
+                markClass(type.getInternalName());
+                break;
+            case Type.METHOD:
+                markType(type.getReturnType());
+                for (Type argumentType : type.getArgumentTypes()) {
+                    markType(argumentType);
+                }
+                break;
+        }
+    }
+
+    private void markConstant(@Nullable Object constant) {
+        if (constant instanceof Type) {
+            markType((Type) constant);
+        }
+        else if (constant instanceof Handle) {
+            Handle handle = (Handle) constant;
+            markClass(handle.getOwner());
+            markMethod(handle.getOwner(), handle.getName(), handle.getDesc());
+        }
+    }
+
+    private void visitMethod(@NotNull String owner, @NotNull MethodNode method) {
+        markClass(owner);
+        markType(Type.getMethodType(method.desc));
+        for (String exception : method.exceptions) {
+            markClass(exception);
+        }
+        for (TryCatchBlockNode tryCatchBlock : method.tryCatchBlocks) {
+            markClass(tryCatchBlock.type);
+        }
+
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn instanceof MethodInsnNode) {
+                MethodInsnNode methodInsn = (MethodInsnNode) insn;
+                markType(Type.getObjectType(methodInsn.owner));
+                markType(Type.getMethodType(methodInsn.desc));
+                markMethod(methodInsn.owner, methodInsn.name, methodInsn.desc);
+            }
+            else if (insn instanceof FieldInsnNode) {
+                markType(Type.getObjectType(((FieldInsnNode) insn).owner));
+                markType(Type.getType(((FieldInsnNode) insn).desc));
+            }
+            else if (insn instanceof TypeInsnNode) {
+                markType(Type.getObjectType(((TypeInsnNode) insn).desc));
+            }
+            else if (insn instanceof MultiANewArrayInsnNode) {
+                markType(Type.getType(((MultiANewArrayInsnNode) insn).desc));
+            }
+            else if (insn instanceof LdcInsnNode) {
+                markConstant(((LdcInsnNode) insn).cst);
+            }
+            else if (insn instanceof InvokeDynamicInsnNode) {
+                InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
+                markType(Type.getMethodType(indy.desc));
+                markConstant(indy.bsm);
+                for (Object bsmArg : indy.bsmArgs) {
+                    markConstant(bsmArg);
+                }
+            }
+        }
+    }
+
+    private boolean removeUnusedMembers(@NotNull ClassNode classNode) {
+        boolean changed = false;
+
+        for (Iterator<MethodNode> iterator = classNode.methods.iterator(); iterator.hasNext(); ) {
+            MethodNode method = iterator.next();
+            if (!liveMethods.contains(methodKey(classNode.name, method.name, method.desc))) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+
+        for (Iterator<InnerClassNode> iterator = classNode.innerClasses.iterator(); iterator.hasNext(); ) {
+            if (removedClasses.contains(iterator.next().name)) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    @NotNull
+    public static String methodKey(@NotNull String owner, @NotNull String name, @NotNull String desc) {
+        return owner + "." + name + desc;
+    }
+}
@@ -20,7 +20,6 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
 import com.intellij.util.containers.Stack;
-import kotlin.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.cfg.WhenChecker;
@@ -47,7 +46,6 @@ import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
 import org.jetbrains.kotlin.resolve.calls.model.ResolvedValueArgument;
 import org.jetbrains.kotlin.resolve.constants.CompileTimeConstant;
 import org.jetbrains.kotlin.resolve.constants.EnumValue;
-import org.jetbrains.kotlin.resolve.constants.NullValue;
 import org.jetbrains.kotlin.resolve.scopes.JetScope;
 import org.jetbrains.kotlin.resolve.source.SourcePackage;
 import org.jetbrains.kotlin.types.JetType;
@@ -513,9 +511,9 @@ class CodegenAnnotatingVisitor extends JetVisitorVoid {
         WhenByEnumsMapping mapping = new WhenByEnumsMapping(classDescriptor, currentClassName, fieldNumber);
 
         for (CompileTimeConstant constant : SwitchCodegenUtil.getAllConstants(expression, bindingContext)) {
-            if (constant instanceof NullValue) continue;
+            // a when may also have non-constant entries if some of its entries are dispatched by a switch
+            if (!(constant instanceof EnumValue)) continue;
 
-            assert constant instanceof EnumValue : "expression in when should be EnumValue";
             mapping.putFirstTime((EnumValue) constant, mapping.size() + 1);
         }
 
@@ -526,16 +524,8 @@ class CodegenAnnotatingVisitor extends JetVisitorVoid {
 
     private boolean isWhenWithEnums(@NotNull JetWhenExpression expression) {
         return WhenChecker.isWhenByEnum(expression, bindingContext) &&
-               SwitchCodegenUtil.checkAllItemsAreConstantsSatisfying(
-                       expression,
-                       bindingContext,
-                       new Function1<CompileTimeConstant, Boolean>() {
-                           @Override
-                           public Boolean invoke(@NotNull CompileTimeConstant constant) {
-                               return constant instanceof EnumValue || constant instanceof NullValue;
-                           }
-                       }
-               );
+               (SwitchCodegenUtil.isEnumConstantsSwitch(expression, bindingContext) ||
+                SwitchCodegenUtil.hasSwitchGroups(expression, SwitchCodegenUtil.SwitchGroupKind.ENUM, bindingContext));
     }
 
     @NotNull
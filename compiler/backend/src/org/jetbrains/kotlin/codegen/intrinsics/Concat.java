@@ -44,19 +44,17 @@ public class Concat extends IntrinsicMethod {
     ) {
         if (receiver == StackValue.none()) {
             // LHS + RHS
-            genStringBuilderConstructor(v);
-            codegen.invokeAppend(arguments.get(0));
-            codegen.invokeAppend(arguments.get(1));
-        }
-        else {
-            // LHS.plus(RHS)
-            receiver.put(AsmTypes.OBJECT_TYPE, v);
-            genStringBuilderConstructor(v);
-            v.swap();
-            genInvokeAppendMethod(v, returnType);
-            codegen.invokeAppend(arguments.get(0));
+            codegen.genStringConcatenation(arguments).put(JAVA_STRING_TYPE, v);
+            return JAVA_STRING_TYPE;
         }
 
+        // LHS.plus(RHS)
+        receiver.put(AsmTypes.OBJECT_TYPE, v);
+        genStringBuilderConstructor(v);
+        v.swap();
+        genInvokeAppendMethod(v, returnType);
+        codegen.invokeAppend(arguments.get(0));
+
         v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
         return JAVA_STRING_TYPE;
     }
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization;
+
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter;
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
+import org.jetbrains.org.objectweb.asm.Opcodes;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.tree.*;
+import org.jetbrains.org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue;
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame;
+
+import java.util.*;
+
+/**
+ * Replaces instances of kotlin.jvm.internal.Ref which never leave the method (usually because all lambdas capturing
+ * the variable were inlined) with local variables holding the value of the element field.
+ *
+ * A Ref qualifies if it is only stored to and loaded from local variables, duplicated, initialized, and has its element
+ * read or written. Any other use of it, as well as a local variable or a stack slot which holds it only on some of
+ * the paths leading to a use, keeps the Ref as is.
+ */
+public class CapturedVarsOptimizationMethodTransformer extends MethodTransformer {
+    private static final String ELEMENT_FIELD_NAME = "element";
+
+    private static final Map<String, Type> REF_ELEMENT_TYPES = ImmutableMap.<String, Type>builder()
+            .put("kotlin/jvm/internal/Ref$ObjectRef", Type.getObjectType("java/lang/Object"))
+            .put("kotlin/jvm/internal/Ref$ByteRef", Type.BYTE_TYPE)
+            .put("kotlin/jvm/internal/Ref$ShortRef", Type.SHORT_TYPE)
+            .put("kotlin/jvm/internal/Ref$IntRef", Type.INT_TYPE)
+            .put("kotlin/jvm/internal/Ref$LongRef", Type.LONG_TYPE)
+            .put("kotlin/jvm/internal/Ref$FloatRef", Type.FLOAT_TYPE)
+            .put("kotlin/jvm/internal/Ref$DoubleRef", Type.DOUBLE_TYPE)
+            .put("kotlin/jvm/internal/Ref$CharRef", Type.CHAR_TYPE)
+            .put("kotlin/jvm/internal/Ref$BooleanRef", Type.BOOLEAN_TYPE)
+            .build();
+
+    @Override
+    public void transform(@NotNull String internalClassName, @NotNull MethodNode methodNode) {
+        if (!hasRefAllocations(methodNode)) return;
+
+        InsnList insnList = methodNode.instructions;
+        RefInterpreter interpreter = new RefInterpreter();
+        Frame<BasicValue>[] frames = analyze(internalClassName, methodNode, interpreter);
+
+        for (int i = 0; i < insnList.size(); i++) {
+            Frame<BasicValue> frame = frames[i];
+            if (frame == null) continue;
+
+            AbstractInsnNode insn = insnList.get(i);
+            RefValue created = interpreter.refsByAllocation.get(insn);
+            if (created != null) {
+                // A previous instance is still reachable when a new one is created, so they can't share a variable
+                if (frameContains(frame, created)) {
+                    interpreter.escaped.add(created);
+                }
+            }
+            else {
+                // POP, SWAP and the like don't call the interpreter for all values they touch
+                int touchedValues = getTouchedStackValueCount(insn.getOpcode());
+                if (touchedValues > 0 && getAffectedRef(insn, frame, interpreter.refsByAllocation) == null) {
+                    for (int depth = 1; depth <= Math.min(touchedValues, frame.getStackSize()); depth++) {
+                        interpreter.markEscaped(frame.getStack(frame.getStackSize() - depth));
+                    }
+                }
+            }
+        }
+
+        Map<RefValue, Integer> replacedRefs = new HashMap<RefValue, Integer>();
+        for (RefValue ref : interpreter.refsByAllocation.values()) {
+            if (interpreter.escaped.contains(ref)) continue;
+
+            replacedRefs.put(ref, methodNode.maxLocals);
+            methodNode.maxLocals += ref.elementType.getSize();
+        }
+        if (replacedRefs.isEmpty()) return;
+
+        rewriteLocalVariables(methodNode, frames, replacedRefs);
+        rewriteInstructions(insnList, frames, interpreter.refsByAllocation, replacedRefs);
+    }
+
+    private static boolean hasRefAllocations(@NotNull MethodNode methodNode) {
+        for (AbstractInsnNode insn = methodNode.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn.getOpcode() == Opcodes.NEW && REF_ELEMENT_TYPES.containsKey(((TypeInsnNode) insn).desc)) return true;
+        }
+        return false;
+    }
+
+    private static void rewriteLocalVariables(
+            @NotNull MethodNode methodNode,
+            @NotNull Frame<BasicValue>[] frames,
+            @NotNull Map<RefValue, Integer> replacedRefs
+    ) {
+        InsnList insnList = methodNode.instructions;
+        for (LocalVariableNode localVariable : methodNode.localVariables) {
+            int start = insnList.indexOf(localVariable.start);
+            int end = insnList.indexOf(localVariable.end);
+            for (int i = start; i <= end; i++) {
+                Frame<BasicValue> frame = frames[i];
+                if (frame == null || localVariable.index >= frame.getLocals()) continue;
+
+                BasicValue value = frame.getLocal(localVariable.index);
+                Integer newIndex = value instanceof RefValue ? replacedRefs.get(value) : null;
+                if (newIndex != null) {
+                    localVariable.index = newIndex;
+                    localVariable.desc = ((RefValue) value).elementType.getDescriptor();
+                    localVariable.signature = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void rewriteInstructions(
+            @NotNull InsnList insnList,
+            @NotNull Frame<BasicValue>[] frames,
+            @NotNull Map<AbstractInsnNode, RefValue> refsByAllocation,
+            @NotNull Map<RefValue, Integer> replacedRefs
+    ) {
+        // Instructions are changed only after all of them are examined, because the frames are indexed by instruction positions
+        Map<AbstractInsnNode, InsnList> replacements = new LinkedHashMap<AbstractInsnNode, InsnList>();
+        for (int i = 0; i < insnList.size(); i++) {
+            Frame<BasicValue> frame = frames[i];
+            if (frame == null) continue;
+
+            AbstractInsnNode insn = insnList.get(i);
+            RefValue ref = getAffectedRef(insn, frame, refsByAllocation);
+            Integer index = ref != null ? replacedRefs.get(ref) : null;
+            if (index == null) continue;
+
+            InsnList replacement = new InsnList();
+            switch (insn.getOpcode()) {
+                case Opcodes.NEW:
+                    replacement.add(new InsnNode(getDefaultValueOpcode(ref.elementType)));
+                    replacement.add(new VarInsnNode(ref.elementType.getOpcode(Opcodes.ISTORE), index));
+                    break;
+                case Opcodes.GETFIELD:
+                    replacement.add(new VarInsnNode(ref.elementType.getOpcode(Opcodes.ILOAD), index));
+                    break;
+                case Opcodes.PUTFIELD:
+                    replacement.add(new VarInsnNode(ref.elementType.getOpcode(Opcodes.ISTORE), index));
+                    break;
+                case Opcodes.DUP_X1:
+                    replacement.add(new InsnNode(Opcodes.DUP));
+                    break;
+                case Opcodes.DUP2_X1:
+                    replacement.add(new InsnNode(Opcodes.DUP2));
+                    break;
+                default:
+                    // ALOAD, ASTORE, DUP, POP, SWAP and the constructor call disappear together with the Ref itself
+            }
+            replacements.put(insn, replacement);
+        }
+
+        for (Map.Entry<AbstractInsnNode, InsnList> entry : replacements.entrySet()) {
+            insnList.insertBefore(entry.getKey(), entry.getValue());
+            insnList.remove(entry.getKey());
+        }
+    }
+
+    // The Ref the instruction creates, stores, loads, moves on the stack, initializes or accesses the element of, if any
+    @Nullable
+    private static RefValue getAffectedRef(
+            @NotNull AbstractInsnNode insn,
+            @NotNull Frame<BasicValue> frame,
+            @NotNull Map<AbstractInsnNode, RefValue> refsByAllocation
+    ) {
+        int stackSize = frame.getStackSize();
+        BasicValue top = stackSize > 0 ? frame.getStack(stackSize - 1) : null;
+        BasicValue second = stackSize > 1 ? frame.getStack(stackSize - 2) : null;
+        switch (insn.getOpcode()) {
+            case Opcodes.NEW:
+                return refsByAllocation.get(insn);
+            case Opcodes.ALOAD:
+                return asRef(frame.getLocal(((VarInsnNode) insn).var));
+            case Opcodes.ASTORE:
+            case Opcodes.DUP:
+            case Opcodes.POP:
+            case Opcodes.GETFIELD:
+            case Opcodes.INVOKESPECIAL:
+                return asRef(top);
+            case Opcodes.PUTFIELD:
+                return asRef(second);
+            case Opcodes.SWAP:
+                // Only one of the swapped values may be a Ref
+                if (top instanceof RefValue) return isRefOrMerged(second) ? null : (RefValue) top;
+                return isRefOrMerged(top) ? null : asRef(second);
+            case Opcodes.DUP_X1:
+                // The value on top is copied below the Ref, e.g. when a postfix increment of a captured variable is used
+                return isRefOrMerged(top) || top == null || top.getSize() != 1 ? null : asRef(second);
+            case Opcodes.DUP2_X1:
+                return isRefOrMerged(top) || top == null || top.getSize() != 2 ? null : asRef(second);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static RefValue asRef(@Nullable BasicValue value) {
+        return value instanceof RefValue ? (RefValue) value : null;
+    }
+
+    private static boolean isRefOrMerged(@Nullable BasicValue value) {
+        return value instanceof RefValue || value instanceof MergedRefsValue;
+    }
+
+    private static boolean frameContains(@NotNull Frame<BasicValue> frame, @NotNull RefValue ref) {
+        for (int i = 0; i < frame.getLocals(); i++) {
+            if (ref.equals(frame.getLocal(i))) return true;
+        }
+        for (int i = 0; i < frame.getStackSize(); i++) {
+            if (ref.equals(frame.getStack(i))) return true;
+        }
+        return false;
+    }
+
+    private static int getTouchedStackValueCount(int opcode) {
+        switch (opcode) {
+            case Opcodes.POP:
+                return 1;
+            case Opcodes.POP2:
+            case Opcodes.DUP2:
+            case Opcodes.DUP_X1:
+            case Opcodes.SWAP:
+                return 2;
+            case Opcodes.DUP_X2:
+            case Opcodes.DUP2_X1:
+                return 3;
+            case Opcodes.DUP2_X2:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    private static int getDefaultValueOpcode(@NotNull Type type) {
+        switch (type.getSort()) {
+            case Type.LONG:
+                return Opcodes.LCONST_0;
+            case Type.FLOAT:
+                return Opcodes.FCONST_0;
+            case Type.DOUBLE:
+                return Opcodes.DCONST_0;
+            case Type.OBJECT:
+                return Opcodes.ACONST_NULL;
+            default:
+                return Opcodes.ICONST_0;
+        }
+    }
+
+    private static class RefValue extends BasicValue {
+        public final AbstractInsnNode allocation;
+        public final Type elementType;
+
+        public RefValue(@NotNull AbstractInsnNode allocation, @NotNull Type refType, @NotNull Type elementType) {
+            super(refType);
+            this.allocation = allocation;
+            this.elementType = elementType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof RefValue && allocation == ((RefValue) o).allocation;
+        }
+
+        @Override
+        public int hashCode() {
+            return allocation.hashCode();
+        }
+    }
+
+    // A slot which holds some Ref on one path and something else on another
+    private static class MergedRefsValue extends BasicValue {
+        public final Set<RefValue> refs;
+
+        public MergedRefsValue(@NotNull Set<RefValue> refs) {
+            super(null);
+            this.refs = refs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof MergedRefsValue && refs.equals(((MergedRefsValue) o).refs);
+        }
+
+        @Override
+        public int hashCode() {
+            return refs.hashCode();
+        }
+    }
+
+    private static class RefInterpreter extends OptimizationBasicInterpreter {
+        public final Map<AbstractInsnNode, RefValue> refsByAllocation = new LinkedHashMap<AbstractInsnNode, RefValue>();
+        public final Set<RefValue> escaped = new HashSet<RefValue>();
+
+        public void markEscaped(@Nullable BasicValue value) {
+            if (value instanceof RefValue) {
+                escaped.add((RefValue) value);
+            }
+            else if (value instanceof MergedRefsValue) {
+                escaped.addAll(((MergedRefsValue) value).refs);
+            }
+        }
+
+        @Override
+        public BasicValue newOperation(@NotNull AbstractInsnNode insn) throws AnalyzerException {
+            if (insn.getOpcode() == Opcodes.NEW) {
+                String refType = ((TypeInsnNode) insn).desc;
+                Type elementType = REF_ELEMENT_TYPES.get(refType);
+                if (elementType != null) {
+                    RefValue value = refsByAllocation.get(insn);
+                    if (value == null) {
+                        value = new RefValue(insn, Type.getObjectType(refType), elementType);
+                        refsByAllocation.put(insn, value);
+                    }
+                    return value;
+                }
+            }
+            return super.newOperation(insn);
+        }
+
+        @Override
+        public BasicValue copyOperation(@NotNull AbstractInsnNode insn, BasicValue value) throws AnalyzerException {
+            int opcode = insn.getOpcode();
+            if (value instanceof RefValue &&
+                (opcode == Opcodes.ALOAD || opcode == Opcodes.ASTORE || opcode == Opcodes.DUP || opcode == Opcodes.SWAP)) {
+                // SWAP is checked separately, since the interpreter sees its operands one by one
+                return value;
+            }
+            markEscaped(value);
+            return super.copyOperation(insn, value);
+        }
+
+        @Override
+        public BasicValue unaryOperation(@NotNull AbstractInsnNode insn, BasicValue value) throws AnalyzerException {
+            if (!(insn.getOpcode() == Opcodes.GETFIELD && isElementOf(insn, value))) {
+                markEscaped(value);
+            }
+            return super.unaryOperation(insn, value);
+        }
+
+        @Override
+        public BasicValue binaryOperation(
+                @NotNull AbstractInsnNode insn, BasicValue value1, BasicValue value2
+        ) throws AnalyzerException {
+            if (!(insn.getOpcode() == Opcodes.PUTFIELD && isElementOf(insn, value1))) {
+                markEscaped(value1);
+            }
+            markEscaped(value2);
+            return super.binaryOperation(insn, value1, value2);
+        }
+
+        @Override
+        public BasicValue ternaryOperation(
+                @NotNull AbstractInsnNode insn, BasicValue value1, BasicValue value2, BasicValue value3
+        ) throws AnalyzerException {
+            markEscaped(value1);
+            markEscaped(value2);
+            markEscaped(value3);
+            return super.ternaryOperation(insn, value1, value2, value3);
+        }
+
+        @Override
+        public BasicValue naryOperation(@NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values) throws AnalyzerException {
+            if (!(isRefConstructorCall(insn) && values.size() == 1 && values.get(0) instanceof RefValue)) {
+                for (BasicValue value : values) {
+                    markEscaped(value);
+                }
+            }
+            return super.naryOperation(insn, values);
+        }
+
+        @Override
+        public void returnOperation(@NotNull AbstractInsnNode insn, BasicValue value, BasicValue expected) throws AnalyzerException {
+            markEscaped(value);
+            super.returnOperation(insn, value, expected);
+        }
+
+        @NotNull
+        @Override
+        public BasicValue merge(@NotNull BasicValue v, @NotNull BasicValue w) {
+            if (isRefOrMerged(v) || isRefOrMerged(w)) {
+                // A plain value of a Ref type is equal to a RefValue by BasicValue.equals, so both directions are checked
+                if (v.equals(w) && w.equals(v)) return v;
+
+                Set<RefValue> refs = new HashSet<RefValue>();
+                addRefs(refs, v);
+                addRefs(refs, w);
+                return new MergedRefsValue(refs);
+            }
+            return super.merge(v, w);
+        }
+
+        private static void addRefs(@NotNull Set<RefValue> refs, @NotNull BasicValue value) {
+            if (value instanceof RefValue) {
+                refs.add((RefValue) value);
+            }
+            else if (value instanceof MergedRefsValue) {
+                refs.addAll(((MergedRefsValue) value).refs);
+            }
+        }
+
+        private static boolean isElementOf(@NotNull AbstractInsnNode insn, @Nullable BasicValue value) {
+            if (!(value instanceof RefValue)) return false;
+            FieldInsnNode fieldInsn = (FieldInsnNode) insn;
+            return fieldInsn.name.equals(ELEMENT_FIELD_NAME) && fieldInsn.owner.equals(value.getType().getInternalName());
+        }
+
+        private static boolean isRefConstructorCall(@NotNull AbstractInsnNode insn) {
+            if (insn.getOpcode() != Opcodes.INVOKESPECIAL) return false;
+            MethodInsnNode methodInsn = (MethodInsnNode) insn;
+            return methodInsn.name.equals("<init>") && methodInsn.desc.equals("()V") && REF_ELEMENT_TYPES.containsKey(methodInsn.owner);
+        }
+    }
+}
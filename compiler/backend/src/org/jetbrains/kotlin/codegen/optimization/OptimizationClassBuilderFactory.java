@@ -17,16 +17,39 @@
 package org.jetbrains.kotlin.codegen.optimization;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.ClassBuilder;
 import org.jetbrains.kotlin.codegen.ClassBuilderFactory;
 import org.jetbrains.kotlin.codegen.ClassBuilderMode;
+import org.jetbrains.kotlin.codegen.state.JvmTypeHierarchy;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 
+import java.util.concurrent.Executor;
+
 public class OptimizationClassBuilderFactory implements ClassBuilderFactory {
     private final ClassBuilderFactory delegate;
+    @Nullable
+    private final Executor executor;
+    @Nullable
+    private final JvmTypeHierarchy typeHierarchy;
 
     public OptimizationClassBuilderFactory(ClassBuilderFactory delegate) {
+        this(delegate, null, null);
+    }
+
+    /**
+     * @param executor if not null, methods are optimized and classes are written on it
+     * @param typeHierarchy the hierarchy used by the frame computation of the delegate, if any,
+     *                      filled on the generating thread when classes are written on the executor
+     */
+    public OptimizationClassBuilderFactory(
+            ClassBuilderFactory delegate,
+            @Nullable Executor executor,
+            @Nullable JvmTypeHierarchy typeHierarchy
+    ) {
         this.delegate = delegate;
+        this.executor = executor;
+        this.typeHierarchy = typeHierarchy;
     }
 
     @NotNull
@@ -38,16 +61,30 @@ public class OptimizationClassBuilderFactory implements ClassBuilderFactory {
     @NotNull
     @Override
     public ClassBuilder newClassBuilder(@NotNull JvmDeclarationOrigin origin) {
-        return new OptimizationClassBuilder(delegate.newClassBuilder(origin));
+        ClassBuilder builder = delegate.newClassBuilder(origin);
+        if (executor != null) {
+            return new ParallelOptimizationClassBuilder(builder, executor, typeHierarchy);
+        }
+        return new OptimizationClassBuilder(builder);
     }
 
     @Override
     public String asText(ClassBuilder builder) {
-        return delegate.asText(((OptimizationClassBuilder) builder).getDelegate());
+        return delegate.asText(unwrap(builder));
     }
 
     @Override
     public byte[] asBytes(ClassBuilder builder) {
-        return delegate.asBytes(((OptimizationClassBuilder) builder).getDelegate());
+        return delegate.asBytes(unwrap(builder));
+    }
+
+    @NotNull
+    private static ClassBuilder unwrap(@NotNull ClassBuilder builder) {
+        if (builder instanceof ParallelOptimizationClassBuilder) {
+            ParallelOptimizationClassBuilder parallelBuilder = (ParallelOptimizationClassBuilder) builder;
+            parallelBuilder.awaitCompletion();
+            return parallelBuilder.getDelegate();
+        }
+        return ((OptimizationClassBuilder) builder).getDelegate();
     }
 }
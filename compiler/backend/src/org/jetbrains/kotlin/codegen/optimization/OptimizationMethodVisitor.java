@@ -20,6 +20,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
 import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantBoxingMethodTransformer;
+import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantNotNullAssertionMethodTransformer;
 import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantNullCheckMethodTransformer;
 import org.jetbrains.kotlin.codegen.optimization.common.CommonPackage;
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
@@ -37,6 +38,8 @@ public class OptimizationMethodVisitor extends MethodVisitor {
     private static final int MEMORY_LIMIT_BY_METHOD_MB = 50;
     private static final MethodTransformer[] TRANSFORMERS = new MethodTransformer[]{
             new RedundantNullCheckMethodTransformer(),
+            new RedundantNotNullAssertionMethodTransformer(),
+            new CapturedVarsOptimizationMethodTransformer(),
             new RedundantBoxingMethodTransformer(),
             new DeadCodeEliminationMethodTransformer(),
             new RedundantGotoMethodTransformer(),
@@ -70,16 +73,37 @@ public class OptimizationMethodVisitor extends MethodVisitor {
 
         super.visitEnd();
 
+        methodCollected();
+    }
+
+    @NotNull
+    protected final MethodNode getMethodNode() {
+        return methodNode;
+    }
+
+    /**
+     * Called when the whole method is collected, optimizes the method and writes it to the delegate by default
+     */
+    protected void methodCollected() {
+        optimize();
+        writeTo(delegate);
+    }
+
+    /**
+     * Only touches the method node of this visitor, so methods may be optimized concurrently
+     */
+    protected final void optimize() {
         if (canBeAnalyzed(methodNode)) {
             for (MethodTransformer transformer : TRANSFORMERS) {
                 transformer.transform("fake", methodNode);
             }
             CommonPackage.prepareForEmitting(methodNode);
         }
+    }
 
+    protected final void writeTo(@NotNull MethodVisitor delegate) {
         methodNode.accept(new EndIgnoringMethodVisitorDecorator(Opcodes.ASM5, delegate));
 
-
         // In case of empty instructions list MethodNode.accept doesn't call visitLocalVariables of delegate
         // So we just do it here
         if (methodNode.instructions.size() == 0) {
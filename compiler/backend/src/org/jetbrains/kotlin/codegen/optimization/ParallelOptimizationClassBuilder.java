@@ -0,0 +1,369 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.AbstractClassBuilder;
+import org.jetbrains.kotlin.codegen.ClassBuilder;
+import org.jetbrains.kotlin.codegen.CompilationException;
+import org.jetbrains.kotlin.codegen.state.JvmTypeHierarchy;
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
+import org.jetbrains.org.objectweb.asm.*;
+import org.jetbrains.org.objectweb.asm.tree.AnnotationNode;
+import org.jetbrains.org.objectweb.asm.tree.FieldNode;
+import org.jetbrains.org.objectweb.asm.tree.MethodNode;
+import org.jetbrains.org.objectweb.asm.tree.TypeAnnotationNode;
+import org.jetbrains.org.objectweb.asm.util.TraceMethodVisitor;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Records the class and optimizes each of its methods on the executor as soon as the method is generated.
+ * When the class is done, the recorded events are written to the delegate on the executor in their original order,
+ * so the resulting class file is the same as the one produced by {@link OptimizationClassBuilder}.
+ * The class and the types its methods refer to are recorded in the type hierarchy on the generating thread,
+ * before anything is handed over to the executor, so the frames don't depend on the order the classes are written in.
+ */
+public class ParallelOptimizationClassBuilder extends AbstractClassBuilder {
+    private final ClassBuilder delegate;
+    private final Executor executor;
+    @Nullable
+    private final JvmTypeHierarchy typeHierarchy;
+
+    private final List<ClassEvent> events = new ArrayList<ClassEvent>();
+    private final ClassVisitor recorder = new RecordingClassVisitor();
+
+    private FutureTask<Void> writing;
+
+    public ParallelOptimizationClassBuilder(
+            @NotNull ClassBuilder delegate,
+            @NotNull Executor executor,
+            @Nullable JvmTypeHierarchy typeHierarchy
+    ) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.typeHierarchy = typeHierarchy;
+    }
+
+    @NotNull
+    public ClassBuilder getDelegate() {
+        return delegate;
+    }
+
+    @NotNull
+    @Override
+    public ClassVisitor getVisitor() {
+        return recorder;
+    }
+
+    @NotNull
+    @Override
+    public MethodVisitor newMethod(
+            @NotNull JvmDeclarationOrigin origin,
+            final int access,
+            @NotNull final String name,
+            @NotNull final String desc,
+            @Nullable final String signature,
+            @Nullable final String[] exceptions
+    ) {
+        final DeferredMethod method = new DeferredMethod(origin.getElement(), access, name, desc, signature, exceptions);
+        events.add(new ClassEvent() {
+            @Override
+            public void replay(@NotNull ClassVisitor visitor) {
+                MethodVisitor target = visitor.visitMethod(access, name, desc, signature, exceptions);
+                method.writeOptimized(target == null ? EMPTY_METHOD_VISITOR : target);
+            }
+        });
+        return method;
+    }
+
+    @Override
+    public void done() {
+        super.done();
+
+        writing = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() {
+                ClassVisitor visitor = delegate.getVisitor();
+                for (ClassEvent event : events) {
+                    event.replay(visitor);
+                }
+                return null;
+            }
+        });
+        executor.execute(writing);
+    }
+
+    /**
+     * Waits until the class is written to the delegate, writing it on the calling thread if no worker has started yet
+     */
+    public void awaitCompletion() {
+        if (writing == null) {
+            throw new IllegalStateException("Class " + getThisName() + " is not done yet");
+        }
+        writing.run();
+        await(writing, "class " + getThisName());
+    }
+
+    private static void await(@NotNull FutureTask<Void> task, @NotNull String subject) {
+        try {
+            task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + subject, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompilationException || cause instanceof ProcessCanceledException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Couldn't generate " + subject, cause);
+        }
+    }
+
+    private interface ClassEvent {
+        void replay(@NotNull ClassVisitor visitor);
+    }
+
+    private class DeferredMethod extends OptimizationMethodVisitor {
+        private final PsiElement element;
+        private final String name;
+        private final String desc;
+
+        private FutureTask<Void> optimization;
+
+        public DeferredMethod(
+                @Nullable PsiElement element,
+                int access,
+                @NotNull String name,
+                @NotNull String desc,
+                @Nullable String signature,
+                @Nullable String[] exceptions
+        ) {
+            super(EMPTY_METHOD_VISITOR, access, name, desc, signature, exceptions);
+            this.element = element;
+            this.name = name;
+            this.desc = desc;
+        }
+
+        @Override
+        protected void methodCollected() {
+            if (typeHierarchy != null) {
+                typeHierarchy.preloadTypesUsedIn(getMethodNode());
+            }
+            optimization = new FutureTask<Void>(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    optimize();
+                    return null;
+                }
+            });
+            executor.execute(optimization);
+        }
+
+        public void writeOptimized(@NotNull MethodVisitor target) {
+            String subject = "method " + name + desc + " of class " + getThisName();
+            if (optimization == null) {
+                throw new IllegalStateException("The body of " + subject + " is not generated");
+            }
+            // The writing task may be picked up before the optimization, in which case the method is optimized here
+            optimization.run();
+            try {
+                optimization.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while optimizing " + subject, e);
+            }
+            catch (ExecutionException e) {
+                throw wrongCodeGenerated(subject, e.getCause());
+            }
+            writeTo(target);
+        }
+
+        // Reports the failure like FunctionCodegen.endVisit does for the methods optimized on the generating thread
+        @NotNull
+        private RuntimeException wrongCodeGenerated(@NotNull String subject, @NotNull Throwable cause) {
+            if (cause instanceof ProcessCanceledException) return (ProcessCanceledException) cause;
+
+            String bytecode = renderByteCodeIfAvailable();
+            String message = "wrong code generated for " + subject + " " +
+                             cause.getClass().getName() + " " + cause.getMessage() +
+                             (bytecode != null ? "\nbytecode:\n" + bytecode : "");
+            if (element == null) {
+                return new IllegalStateException(message, cause);
+            }
+            return new CompilationException(message, cause, element);
+        }
+
+        @Nullable
+        private String renderByteCodeIfAvailable() {
+            TraceMethodVisitor traceMethodVisitor = getTraceMethodVisitorIfPossible();
+            if (traceMethodVisitor == null) return null;
+
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            traceMethodVisitor.p.print(pw);
+            pw.close();
+            return sw.toString();
+        }
+    }
+
+    private class RecordingClassVisitor extends ClassVisitor {
+        public RecordingClassVisitor() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(
+                final int version,
+                final int access,
+                final String name,
+                final String signature,
+                final String superName,
+                final String[] interfaces
+        ) {
+            if (typeHierarchy != null) {
+                typeHierarchy.recordClass(name, access, superName);
+                typeHierarchy.preload(name);
+            }
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visit(version, access, name, signature, superName, interfaces);
+                }
+            });
+        }
+
+        @Override
+        public void visitSource(final String source, final String debug) {
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visitSource(source, debug);
+                }
+            });
+        }
+
+        @Override
+        public void visitOuterClass(final String owner, final String name, final String desc) {
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visitOuterClass(owner, name, desc);
+                }
+            });
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(final String desc, final boolean visible) {
+            final AnnotationNode annotation = new AnnotationNode(desc);
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    annotation.accept(visitor.visitAnnotation(desc, visible));
+                }
+            });
+            return annotation;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(final int typeRef, final TypePath typePath, final String desc, final boolean visible) {
+            final TypeAnnotationNode annotation = new TypeAnnotationNode(typeRef, typePath, desc);
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    annotation.accept(visitor.visitTypeAnnotation(typeRef, typePath, desc, visible));
+                }
+            });
+            return annotation;
+        }
+
+        @Override
+        public void visitAttribute(final Attribute attribute) {
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visitAttribute(attribute);
+                }
+            });
+        }
+
+        @Override
+        public void visitInnerClass(final String name, final String outerName, final String innerName, final int access) {
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visitInnerClass(name, outerName, innerName, access);
+                }
+            });
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+            final FieldNode field = new FieldNode(access, name, desc, signature, value);
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    field.accept(visitor);
+                }
+            });
+            return field;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            // Methods written directly to the visitor are not optimized, as with OptimizationClassBuilder
+            final MethodNode method = new MethodNode(Opcodes.ASM5, access, name, desc, signature, exceptions) {
+                @Override
+                public void visitEnd() {
+                    if (typeHierarchy != null) {
+                        typeHierarchy.preloadTypesUsedIn(this);
+                    }
+                }
+            };
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    method.accept(visitor);
+                }
+            });
+            return method;
+        }
+
+        @Override
+        public void visitEnd() {
+            events.add(new ClassEvent() {
+                @Override
+                public void replay(@NotNull ClassVisitor visitor) {
+                    visitor.visitEnd();
+                }
+            });
+        }
+    }
+}
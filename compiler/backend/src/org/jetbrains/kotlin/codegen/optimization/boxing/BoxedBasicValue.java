@@ -32,6 +32,7 @@ import java.util.Set;
 public class BoxedBasicValue extends BasicValue {
     private final Set<AbstractInsnNode> associatedInsns = new HashSet<AbstractInsnNode>();
     private final Set<Pair<AbstractInsnNode, Type>> unboxingWithCastInsns = new HashSet<Pair<AbstractInsnNode, Type>>();
+    private final Set<AbstractInsnNode> comparisonInsns = new HashSet<AbstractInsnNode>();
     private final AbstractInsnNode boxingInsn;
     private final Set<Integer> associatedVariables = new HashSet<Integer>();
     private final Set<BoxedBasicValue> mergedWith = new HashSet<BoxedBasicValue>();
@@ -131,4 +132,13 @@ public class BoxedBasicValue extends BasicValue {
     public Set<Pair<AbstractInsnNode, Type>> getUnboxingWithCastInsns() {
         return unboxingWithCastInsns;
     }
+
+    public void addComparison(@NotNull AbstractInsnNode insn) {
+        comparisonInsns.add(insn);
+    }
+
+    @NotNull
+    public Set<AbstractInsnNode> getComparisonInsns() {
+        return comparisonInsns;
+    }
 }
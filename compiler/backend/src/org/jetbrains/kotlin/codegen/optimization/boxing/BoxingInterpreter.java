@@ -22,6 +22,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.AsmUtil;
 import org.jetbrains.kotlin.codegen.RangeCodegenUtil;
 import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter;
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes;
 import org.jetbrains.kotlin.resolve.jvm.JvmPrimitiveType;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.builtins.PrimitiveType;
@@ -39,6 +40,8 @@ import java.util.Map;
 
 public class BoxingInterpreter extends OptimizationBasicInterpreter {
     private static final ImmutableSet<String> UNBOXING_METHOD_NAMES;
+    private static final String BUILT_INS_PACKAGE_PREFIX = "kotlin/";
+    private static final String ITERATOR_SUFFIX = "Iterator";
 
     static {
         UNBOXING_METHOD_NAMES = ImmutableSet.of(
@@ -100,6 +103,9 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                     progressionIterator
             );
         }
+        else if (isCompareToOfBoxedValues(insn, values)) {
+            onCompareTo(insn, (BoxedBasicValue) firstArg, (BoxedBasicValue) values.get(1));
+        }
         else {
             // nary operation should be a method call or multinewarray
             // arguments for multinewarray could be only numeric
@@ -109,11 +115,69 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                     onMethodCallWithBoxedValue((BoxedBasicValue) arg);
                 }
             }
+
+            // e.g. IntArray.iterator() or an iterator of a primitive progression passed to an inline function
+            if (value != null && isPrimitiveIteratorType(value.getType())) {
+                return createPrimitiveIterator(value.getType());
+            }
         }
 
         return value;
     }
 
+    private static boolean isPrimitiveIteratorType(@Nullable Type type) {
+        return getValuesTypeOfPrimitiveIterator(type) != null;
+    }
+
+    @NotNull
+    private static ProgressionIteratorBasicValue createPrimitiveIterator(@NotNull Type type) {
+        String valuesTypeName = getValuesTypeOfPrimitiveIterator(type);
+        assert valuesTypeName != null : "Not a primitive iterator: " + type;
+        return new ProgressionIteratorBasicValue(valuesTypeName);
+    }
+
+    /**
+     * e.g. for "kotlin/IntIterator" it returns "Int"
+     */
+    @Nullable
+    private static String getValuesTypeOfPrimitiveIterator(@Nullable Type type) {
+        if (type == null || type.getSort() != Type.OBJECT) return null;
+
+        String internalName = type.getInternalName();
+        if (!internalName.startsWith(BUILT_INS_PACKAGE_PREFIX) || !internalName.endsWith(ITERATOR_SUFFIX)) return null;
+
+        String valuesTypeName = internalName.substring(
+                BUILT_INS_PACKAGE_PREFIX.length(), internalName.length() - ITERATOR_SUFFIX.length()
+        );
+        return ProgressionIteratorBasicValue.isSupportedValuesTypeName(valuesTypeName) ? valuesTypeName : null;
+    }
+
+    private static boolean isCompareToOfBoxedValues(@NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values) {
+        if (values.size() != 2 || !isCompareTo(insn)) return false;
+
+        BasicValue receiver = values.get(0);
+        BasicValue argument = values.get(1);
+        return receiver instanceof BoxedBasicValue &&
+               argument instanceof BoxedBasicValue &&
+               ((BoxedBasicValue) receiver).getPrimitiveType().equals(((BoxedBasicValue) argument).getPrimitiveType()) &&
+               ((BoxedBasicValue) receiver).getPrimitiveType().getSort() != Type.BOOLEAN;
+    }
+
+    private static boolean isCompareTo(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKEINTERFACE && insn.getOpcode() != Opcodes.INVOKEVIRTUAL) return false;
+
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        if (!"compareTo".equals(methodInsn.name)) return false;
+
+        if (insn.getOpcode() == Opcodes.INVOKEINTERFACE) {
+            return methodInsn.owner.equals(Type.getInternalName(Comparable.class)) &&
+                   methodInsn.desc.equals(Type.getMethodDescriptor(Type.INT_TYPE, AsmTypes.OBJECT_TYPE));
+        }
+
+        return isWrapperClassName(methodInsn.owner) &&
+               methodInsn.desc.equals(Type.getMethodDescriptor(Type.INT_TYPE, Type.getObjectType(methodInsn.owner)));
+    }
+
     private static boolean isWrapperClassNameOrNumber(@NotNull String internalClassName) {
         return isWrapperClassName(internalClassName) || internalClassName.equals(Type.getInternalName(Number.class));
     }
@@ -198,7 +262,12 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
             return value;
         }
 
-        return super.unaryOperation(insn, value);
+        BasicValue result = super.unaryOperation(insn, value);
+        if (insn.getOpcode() == Opcodes.CHECKCAST && isPrimitiveIteratorType(result.getType())) {
+            return createPrimitiveIterator(result.getType());
+        }
+
+        return result;
     }
 
     protected boolean isExactValue(@NotNull BasicValue value) {
@@ -238,6 +307,10 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
 
     }
 
+    protected void onCompareTo(@NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue receiver, @NotNull BoxedBasicValue argument) {
+
+    }
+
     protected void onMergeFail(@NotNull BoxedBasicValue value) {
 
     }
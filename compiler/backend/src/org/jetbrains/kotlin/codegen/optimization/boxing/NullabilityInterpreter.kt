@@ -24,7 +24,14 @@ import org.jetbrains.org.objectweb.asm.tree.AbstractInsnNode
 import org.jetbrains.org.objectweb.asm.Opcodes
 
 public class NullabilityInterpreter(insns: InsnList) : BoxingInterpreter(insns) {
-    override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue) = makeNotNullIfNeeded(insn, super.unaryOperation(insn, value))
+    override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+        val result = makeNotNullIfNeeded(insn, super.unaryOperation(insn, value))
+        // A cast doesn't change nullability of the value
+        if (insn.getOpcode() == Opcodes.CHECKCAST && value is NotNullBasicValue && result !is NotNullBasicValue) {
+            return NotNullBasicValue(result)
+        }
+        return result
+    }
 
     override fun newOperation(insn: AbstractInsnNode) = makeNotNullIfNeeded(insn, super.newOperation(insn))
 
@@ -36,6 +36,10 @@ public class ProgressionIteratorBasicValue extends BasicValue {
                 build();
     }
 
+    public static boolean isSupportedValuesTypeName(@NotNull String valuesTypeName) {
+        return VALUES_TYPENAME_TO_TYPE.containsKey(valuesTypeName);
+    }
+
     @NotNull
     private static Type getValuesType(@NotNull String valuesTypeName) {
         Type type = VALUES_TYPENAME_TO_TYPE.get(valuesTypeName);
@@ -30,7 +30,8 @@ import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue;
 
 class RedundantBoxingInterpreter extends BoxingInterpreter {
     private static final ImmutableSet<Integer> PERMITTED_OPERATIONS_OPCODES = ImmutableSet.of(
-            Opcodes.ASTORE, Opcodes.ALOAD, Opcodes.POP, Opcodes.DUP, Opcodes.CHECKCAST, Opcodes.INSTANCEOF
+            Opcodes.ASTORE, Opcodes.ALOAD, Opcodes.POP, Opcodes.DUP, Opcodes.CHECKCAST, Opcodes.INSTANCEOF,
+            Opcodes.IFNULL, Opcodes.IFNONNULL
     );
 
     private static final ImmutableSet<Integer> PRIMITIVE_TYPES_SORTS_WITH_WRAPPER_EXTENDS_NUMBER = ImmutableSet.of(
@@ -89,7 +90,8 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
     }
 
     private static boolean isSafeCast(@NotNull BoxedBasicValue value, @NotNull String targetInternalName) {
-        if (targetInternalName.equals(Type.getInternalName(Object.class))) return true;
+        if (targetInternalName.equals(Type.getInternalName(Object.class)) ||
+            targetInternalName.equals(Type.getInternalName(Comparable.class))) return true;
 
         if (targetInternalName.equals(Type.getInternalName(Number.class))) {
             return PRIMITIVE_TYPES_SORTS_WITH_WRAPPER_EXTENDS_NUMBER.contains(
@@ -138,6 +140,18 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
         markValueAsDirty(value);
     }
 
+    @Override
+    protected void onCompareTo(
+            @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue receiver, @NotNull BoxedBasicValue argument
+    ) {
+        // Either both values are unboxed or none of them
+        values.merge(receiver, argument);
+
+        if (receiver.isSafeToRemove()) {
+            receiver.addComparison(insn);
+        }
+    }
+
     @Override
     protected void onMergeFail(@NotNull BoxedBasicValue v) {
         markValueAsDirty(v);
@@ -20,6 +20,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.AsmUtil;
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
 import org.jetbrains.org.objectweb.asm.Opcodes;
 import org.jetbrains.org.objectweb.asm.Type;
@@ -242,6 +243,10 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
             adaptCastInstruction(node, value, cast);
         }
 
+        for (AbstractInsnNode insn : value.getComparisonInsns()) {
+            adaptComparisonInstruction(node, value, insn);
+        }
+
         for (AbstractInsnNode insn : value.getAssociatedInsns()) {
             adaptInstruction(node, insn, value);
         }
@@ -291,6 +296,36 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
         node.instructions.remove(castInsn);
     }
 
+    private static void adaptComparisonInstruction(
+            @NotNull MethodNode node,
+            @NotNull BoxedBasicValue value,
+            @NotNull AbstractInsnNode comparisonInsn
+    ) {
+        Type primitiveType = value.getPrimitiveType();
+        AbstractInsnNode primitiveComparison;
+        switch (primitiveType.getSort()) {
+            case Type.INT:
+            case Type.LONG:
+                primitiveComparison = new MethodInsnNode(
+                        Opcodes.INVOKESTATIC, "kotlin/jvm/internal/Intrinsics", "compare",
+                        Type.getMethodDescriptor(Type.INT_TYPE, primitiveType, primitiveType), false
+                );
+                break;
+            case Type.FLOAT:
+            case Type.DOUBLE:
+                primitiveComparison = new MethodInsnNode(
+                        Opcodes.INVOKESTATIC, AsmUtil.boxType(primitiveType).getInternalName(), "compare",
+                        Type.getMethodDescriptor(Type.INT_TYPE, primitiveType, primitiveType), false
+                );
+                break;
+            default:
+                // Character, Byte and Short return the difference of the values
+                primitiveComparison = new InsnNode(Opcodes.ISUB);
+        }
+
+        node.instructions.set(comparisonInsn, primitiveComparison);
+    }
+
     private static void adaptInstruction(
             @NotNull MethodNode node, @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue value
     ) {
@@ -324,6 +359,20 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
                         )
                 );
                 break;
+            case Opcodes.IFNULL:
+                // boxed value is never null
+                node.instructions.set(
+                        insn,
+                        new InsnNode(isDoubleSize ? Opcodes.POP2 : Opcodes.POP)
+                );
+                break;
+            case Opcodes.IFNONNULL:
+                node.instructions.insertBefore(
+                        insn,
+                        new InsnNode(isDoubleSize ? Opcodes.POP2 : Opcodes.POP)
+                );
+                node.instructions.set(insn, new JumpInsnNode(Opcodes.GOTO, ((JumpInsnNode) insn).label));
+                break;
             case Opcodes.INSTANCEOF:
                 node.instructions.insertBefore(
                         insn,
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.boxing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods;
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
+import org.jetbrains.org.objectweb.asm.Opcodes;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.tree.*;
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue;
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes calls to not-null assertion intrinsics (see AsmUtil.genNotNullAssertions and friends) whose checked value is
+ * already known to be not null, e.g. a constant, a newly created object or an argument of an inlined function.
+ */
+public class RedundantNotNullAssertionMethodTransformer extends MethodTransformer {
+    private static final Set<String> ASSERTION_METHODS = new HashSet<String>(Arrays.asList(
+            "checkParameterIsNotNull",
+            "checkExpressionValueIsNotNull",
+            "checkReturnedValueIsNotNull",
+            "checkFieldIsNotNull"
+    ));
+
+    @Override
+    public void transform(@NotNull String internalClassName, @NotNull MethodNode methodNode) {
+        InsnList insnList = methodNode.instructions;
+        Frame<BasicValue>[] frames = analyze(
+                internalClassName, methodNode,
+                new NullabilityInterpreter(insnList)
+        );
+
+        List<MethodInsnNode> redundantAssertions = new ArrayList<MethodInsnNode>();
+
+        for (int i = 0; i < insnList.size(); i++) {
+            Frame<BasicValue> frame = frames[i];
+            AbstractInsnNode insn = insnList.get(i);
+
+            if (frame != null && isNotNullAssertion(insn)) {
+                int argumentCount = Type.getArgumentTypes(((MethodInsnNode) insn).desc).length;
+                if (frame.getStack(frame.getStackSize() - argumentCount) instanceof NotNullBasicValue) {
+                    redundantAssertions.add((MethodInsnNode) insn);
+                }
+            }
+        }
+
+        for (MethodInsnNode insn : redundantAssertions) {
+            removeAssertion(insnList, insn);
+        }
+    }
+
+    private static boolean isNotNullAssertion(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKESTATIC) return false;
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        return methodInsn.owner.equals(IntrinsicMethods.INTRINSICS_CLASS_NAME) && ASSERTION_METHODS.contains(methodInsn.name);
+    }
+
+    private static void removeAssertion(@NotNull InsnList insnList, @NotNull MethodInsnNode insn) {
+        int messageCount = Type.getArgumentTypes(insn.desc).length - 1;
+
+        // Assertions are generated as (DUP | ALOAD) LDC+ INVOKESTATIC, see AsmUtil
+        List<AbstractInsnNode> arguments = new ArrayList<AbstractInsnNode>(messageCount + 1);
+        AbstractInsnNode cur = insn.getPrevious();
+        while (cur != null && arguments.size() < messageCount && cur.getOpcode() == Opcodes.LDC) {
+            arguments.add(cur);
+            cur = cur.getPrevious();
+        }
+
+        if (arguments.size() == messageCount && cur != null &&
+            (cur.getOpcode() == Opcodes.DUP || cur.getOpcode() == Opcodes.ALOAD)) {
+            arguments.add(cur);
+            for (AbstractInsnNode argument : arguments) {
+                insnList.remove(argument);
+            }
+            insnList.remove(insn);
+        }
+        else {
+            // Unknown shape of arguments, just drop them from the stack
+            for (int i = 0; i <= messageCount; i++) {
+                insnList.insertBefore(insn, new InsnNode(Opcodes.POP));
+            }
+            insnList.remove(insn);
+        }
+    }
+}
@@ -35,11 +35,16 @@ import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.BindingTrace;
 import org.jetbrains.kotlin.resolve.DelegatingBindingTrace;
 import org.jetbrains.kotlin.types.reflect.ReflectionTypes;
+import org.jetbrains.org.objectweb.asm.Opcodes;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GenerationState {
     public interface GenerateClassFilter {
@@ -114,6 +119,13 @@ public class GenerationState {
 
     private final boolean disableInline;
 
+    private final boolean jvm8Target;
+
+    private final boolean stripUnusedSynthetics;
+
+    @Nullable
+    private final ExecutorService optimizationExecutor;
+
     @Nullable
     private List<ScriptDescriptor> earlierScriptsForReplInterpreter;
 
@@ -162,6 +174,31 @@ public class GenerationState {
             @Nullable String moduleId,
             @NotNull DiagnosticSink diagnostics,
             @Nullable File outDirectory
+    ) {
+        this(project, builderFactory, progress, module, bindingContext, files, disableCallAssertions, disableParamAssertions,
+             generateClassFilter, disableInline, disableOptimization, packagesWithObsoleteParts, moduleId, diagnostics, outDirectory,
+             false, false, false);
+    }
+
+    public GenerationState(
+            @NotNull Project project,
+            @NotNull ClassBuilderFactory builderFactory,
+            @NotNull Progress progress,
+            @NotNull ModuleDescriptor module,
+            @NotNull BindingContext bindingContext,
+            @NotNull List<JetFile> files,
+            boolean disableCallAssertions,
+            boolean disableParamAssertions,
+            GenerateClassFilter generateClassFilter,
+            boolean disableInline,
+            boolean disableOptimization,
+            @Nullable Collection<FqName> packagesWithObsoleteParts,
+            @Nullable String moduleId,
+            @NotNull DiagnosticSink diagnostics,
+            @Nullable File outDirectory,
+            boolean jvm8Target,
+            boolean stripUnusedSynthetics,
+            boolean parallelBackend
     ) {
         this.project = project;
         this.progress = progress;
@@ -171,6 +208,8 @@ public class GenerationState {
         this.packagesWithObsoleteParts = packagesWithObsoleteParts == null ? Collections.<FqName>emptySet() : packagesWithObsoleteParts;
         this.classBuilderMode = builderFactory.getClassBuilderMode();
         this.disableInline = disableInline;
+        this.jvm8Target = jvm8Target;
+        this.stripUnusedSynthetics = stripUnusedSynthetics;
 
         this.bindingTrace = new DelegatingBindingTrace(bindingContext, "trace in GenerationState");
         this.bindingContext = bindingTrace.getBindingContext();
@@ -180,8 +219,16 @@ public class GenerationState {
 
         this.intrinsics = new IntrinsicMethods();
 
+        boolean parallelOptimization = parallelBackend && !disableOptimization;
+        JvmTypeHierarchy typeHierarchy = new JvmTypeHierarchy(module, typeMapper, !parallelOptimization);
+        builderFactory = ClassBuilderFactories.withTypeHierarchy(builderFactory, typeHierarchy);
+
         if (!disableOptimization) {
-            builderFactory = new OptimizationClassBuilderFactory(builderFactory);
+            this.optimizationExecutor = parallelOptimization ? createOptimizationExecutor() : null;
+            builderFactory = new OptimizationClassBuilderFactory(builderFactory, optimizationExecutor, typeHierarchy);
+        }
+        else {
+            this.optimizationExecutor = null;
         }
 
         this.diagnostics = diagnostics;
@@ -259,6 +306,25 @@ public class GenerationState {
         return !disableParamAssertions;
     }
 
+    /**
+     * JVM 1.8 bytecode may use invokedynamic with {@code LambdaMetafactory} instead of generating classes for SAM adapters
+     */
+    public boolean isJvm8Target() {
+        return jvm8Target;
+    }
+
+    /**
+     * Accessors, inlined lambda classes and private inline functions which are no longer called after inlining
+     * are removed from the module output
+     */
+    public boolean isStripUnusedSyntheticsEnabled() {
+        return stripUnusedSynthetics;
+    }
+
+    public int getClassFileVersion() {
+        return jvm8Target ? Opcodes.V1_8 : Opcodes.V1_6;
+    }
+
     @NotNull
     public GenerateClassFilter getGenerateDeclaredClassFilter() {
         return generateClassFilter;
@@ -297,6 +363,24 @@ public class GenerationState {
     }
 
     public void destroy() {
+        if (optimizationExecutor != null) {
+            optimizationExecutor.shutdown();
+        }
+    }
+
+    @NotNull
+    private static ExecutorService createOptimizationExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NotNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "Kotlin backend optimizer " + count.incrementAndGet());
+                // The compiler shouldn't hang if the state is not destroyed
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     @Nullable
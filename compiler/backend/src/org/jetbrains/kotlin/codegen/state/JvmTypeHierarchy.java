@@ -0,0 +1,217 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.state;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+import org.jetbrains.kotlin.descriptors.ClassKind;
+import org.jetbrains.kotlin.descriptors.ModuleDescriptor;
+import org.jetbrains.kotlin.name.ClassId;
+import org.jetbrains.kotlin.name.FqName;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.jvm.JvmClassName;
+import org.jetbrains.org.objectweb.asm.Opcodes;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.tree.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.jetbrains.kotlin.serialization.deserialization.DeserializationPackage.findClassAcrossModuleDependencies;
+
+/**
+ * Answers the common superclass queries of the stack map frame computation from the classes generated in the module
+ * and the descriptors of the module dependencies, so that no class has to be loaded.
+ * Superclasses are cached for the whole module; it's safe to query the hierarchy from several threads.
+ * <p/>
+ * Descriptors are mapped with the type mapper, which reads the binding context, so classes may be resolved only on the thread
+ * generating code. When frames are computed on other threads, on-demand resolution is disabled: classes are recorded and the types
+ * used by each method are {@link #preloadTypesUsedIn preloaded} on the generating thread before the method is handed over,
+ * and the queries are then answered from the cache alone, which doesn't depend on the timing of the other threads.
+ */
+public class JvmTypeHierarchy {
+    private static final String OBJECT = "java/lang/Object";
+
+    private final ModuleDescriptor module;
+    private final JetTypeMapper typeMapper;
+    private final boolean resolveOnDemand;
+
+    private final ConcurrentMap<String, ClassInfo> classes = new ConcurrentHashMap<String, ClassInfo>();
+
+    /**
+     * @param resolveOnDemand whether {@link #getCommonSuperClass} may resolve the classes which are not cached yet,
+     *                        must be false if it's called on threads other than the one generating code
+     */
+    public JvmTypeHierarchy(@NotNull ModuleDescriptor module, @NotNull JetTypeMapper typeMapper, boolean resolveOnDemand) {
+        this.module = module;
+        this.typeMapper = typeMapper;
+        this.resolveOnDemand = resolveOnDemand;
+    }
+
+    public void recordClass(@NotNull String internalName, int access, @Nullable String superName) {
+        classes.put(internalName, new ClassInfo(superName, (access & Opcodes.ACC_INTERFACE) != 0));
+    }
+
+    /**
+     * Resolves the superclasses of the class, must be called on the thread generating code
+     */
+    public void preload(@NotNull String internalName) {
+        getSuperClasses(internalName, true);
+    }
+
+    /**
+     * Resolves the superclasses of all types the method refers to, which includes every type its frames may contain.
+     * Must be called on the thread generating code
+     */
+    public void preloadTypesUsedIn(@NotNull MethodNode method) {
+        preloadType(Type.getMethodType(method.desc));
+        for (TryCatchBlockNode tryCatchBlock : method.tryCatchBlocks) {
+            if (tryCatchBlock.type != null) {
+                preload(tryCatchBlock.type);
+            }
+        }
+
+        for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn instanceof TypeInsnNode) {
+                preloadType(Type.getObjectType(((TypeInsnNode) insn).desc));
+            }
+            else if (insn instanceof FieldInsnNode) {
+                preload(((FieldInsnNode) insn).owner);
+                preloadType(Type.getType(((FieldInsnNode) insn).desc));
+            }
+            else if (insn instanceof MethodInsnNode) {
+                preloadType(Type.getObjectType(((MethodInsnNode) insn).owner));
+                preloadType(Type.getMethodType(((MethodInsnNode) insn).desc));
+            }
+            else if (insn instanceof InvokeDynamicInsnNode) {
+                preloadType(Type.getMethodType(((InvokeDynamicInsnNode) insn).desc));
+            }
+            else if (insn instanceof LdcInsnNode && ((LdcInsnNode) insn).cst instanceof Type) {
+                preloadType((Type) ((LdcInsnNode) insn).cst);
+            }
+            else if (insn instanceof MultiANewArrayInsnNode) {
+                preloadType(Type.getType(((MultiANewArrayInsnNode) insn).desc));
+            }
+        }
+    }
+
+    private void preloadType(@NotNull Type type) {
+        switch (type.getSort()) {
+            case Type.ARRAY:
+                preloadType(type.getElementType());
+                break;
+            case Type.OBJECT:
+                preload(type.getInternalName());
+                break;
+            case Type.METHOD:
+                for (Type argumentType : type.getArgumentTypes()) {
+                    preloadType(argumentType);
+                }
+                preloadType(type.getReturnType());
+                break;
+        }
+    }
+
+    /**
+     * Interfaces are merged to java/lang/Object like the verifier does, classes which can't be found are considered
+     * direct subclasses of java/lang/Object
+     */
+    @NotNull
+    public String getCommonSuperClass(@NotNull String type1, @NotNull String type2) {
+        if (type1.equals(type2)) return type1;
+
+        List<String> superClasses1 = getSuperClasses(type1, resolveOnDemand);
+        if (superClasses1 == null) return OBJECT;
+        List<String> superClasses2 = getSuperClasses(type2, resolveOnDemand);
+        if (superClasses2 == null) return OBJECT;
+
+        Set<String> superClassSet2 = new HashSet<String>(superClasses2);
+        for (String superClass : superClasses1) {
+            if (superClassSet2.contains(superClass)) return superClass;
+        }
+        return OBJECT;
+    }
+
+    // Returns the type and all of its superclasses, or null for interfaces
+    @Nullable
+    private List<String> getSuperClasses(@NotNull String type, boolean resolve) {
+        List<String> result = new ArrayList<String>();
+        String current = type;
+        while (current != null && !result.contains(current)) {
+            ClassInfo info = getClassInfo(current, resolve);
+            if (info != null && info.isInterface) return null;
+            result.add(current);
+            current = info != null ? info.superName : OBJECT;
+        }
+        return result;
+    }
+
+    @Nullable
+    private ClassInfo getClassInfo(@NotNull String internalName, boolean resolve) {
+        if (internalName.equals(OBJECT)) return ClassInfo.ROOT;
+
+        ClassInfo info = classes.get(internalName);
+        if (info != null || !resolve) return info;
+
+        info = resolveClassInfo(internalName);
+        if (info == null) {
+            // The class may be generated later in this module, so the miss isn't cached
+            return null;
+        }
+
+        ClassInfo recorded = classes.putIfAbsent(internalName, info);
+        return recorded != null ? recorded : info;
+    }
+
+    @Nullable
+    private ClassInfo resolveClassInfo(@NotNull String internalName) {
+        JvmClassName className = JvmClassName.byInternalName(internalName);
+        FqName packageFqName = className.getPackageFqName();
+        String relativeName = packageFqName.isRoot() ? internalName : internalName.substring(internalName.lastIndexOf('/') + 1);
+        if (relativeName.isEmpty() || relativeName.startsWith("$") || relativeName.endsWith("$") || relativeName.contains("$$")) {
+            return null;
+        }
+
+        ClassDescriptor descriptor = findClassAcrossModuleDependencies(
+                module, new ClassId(packageFqName, new FqName(relativeName.replace('$', '.')), false));
+        if (descriptor == null || !typeMapper.mapClass(descriptor).getInternalName().equals(internalName)) return null;
+
+        if (descriptor.getKind() == ClassKind.TRAIT || descriptor.getKind() == ClassKind.ANNOTATION_CLASS) {
+            return new ClassInfo(OBJECT, true);
+        }
+
+        ClassDescriptor superClass = DescriptorUtils.getClassDescriptorForType(DescriptorUtils.getSuperClassType(descriptor));
+        return new ClassInfo(typeMapper.mapClass(superClass).getInternalName(), false);
+    }
+
+    private static class ClassInfo {
+        public static final ClassInfo ROOT = new ClassInfo(null, false);
+
+        public final String superName;
+        public final boolean isInterface;
+
+        public ClassInfo(@Nullable String superName, boolean isInterface) {
+            this.superName = superName;
+            this.isInterface = isInterface;
+        }
+    }
+}
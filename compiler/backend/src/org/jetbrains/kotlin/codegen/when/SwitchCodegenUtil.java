@@ -19,20 +19,40 @@ package org.jetbrains.kotlin.codegen.when;
 import kotlin.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.cfg.WhenChecker;
 import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.codegen.RangeCodegenUtil;
 import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
+import org.jetbrains.kotlin.lexer.JetTokens;
 import org.jetbrains.kotlin.psi.*;
 import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.constants.CompileTimeConstant;
+import org.jetbrains.kotlin.resolve.constants.EnumValue;
 import org.jetbrains.kotlin.resolve.constants.IntegerValueConstant;
 import org.jetbrains.kotlin.resolve.constants.NullValue;
 import org.jetbrains.kotlin.resolve.constants.StringValue;
+import org.jetbrains.kotlin.types.JetType;
+import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class SwitchCodegenUtil {
+    // A smaller group of constant entries of a non-constant when is not worth a switch
+    private static final int MIN_CONDITIONS_IN_SWITCH_GROUP = 3;
+    private static final int MAX_RANGE_LENGTH_IN_SWITCH_GROUP = 256;
+
+    /**
+     * Kinds of subjects for which a group of consecutive constant entries is dispatched by a switch
+     * when other entries of the when are not constant
+     */
+    public enum SwitchGroupKind {
+        ENUM,
+        STRING,
+        INTEGRAL
+    }
+
     public static boolean checkAllItemsAreConstantsSatisfying(
             @NotNull JetWhenExpression expression,
             @NotNull BindingContext bindingContext,
@@ -113,7 +133,7 @@ public class SwitchCodegenUtil {
 
         WhenByEnumsMapping mapping = codegen.getBindingContext().get(CodegenBinding.MAPPING_FOR_WHEN_BY_ENUM, expression);
 
-        if (mapping != null) {
+        if (mapping != null && isEnumConstantsSwitch(expression, bindingContext)) {
             return new EnumSwitchCodegen(expression, isStatement, codegen, mapping);
         }
 
@@ -139,6 +159,15 @@ public class SwitchCodegenUtil {
         return false;
     }
 
+    public static boolean isEnumConstantsSwitch(@NotNull JetWhenExpression expression, @NotNull BindingContext bindingContext) {
+        return checkAllItemsAreConstantsSatisfying(expression, bindingContext, new Function1<CompileTimeConstant, Boolean>() {
+            @Override
+            public Boolean invoke(@NotNull CompileTimeConstant constant) {
+                return constant instanceof EnumValue || constant instanceof NullValue;
+            }
+        });
+    }
+
     private static boolean isIntegralConstantsSwitch(
             @NotNull JetWhenExpression expression,
             @NotNull Type subjectType,
@@ -179,4 +208,186 @@ public class SwitchCodegenUtil {
             }
         });
     }
+
+    @Nullable
+    public static SwitchGroupKind getSwitchGroupKind(
+            @NotNull JetWhenExpression expression,
+            @NotNull Type subjectType,
+            @NotNull BindingContext bindingContext
+    ) {
+        if (expression.getSubjectExpression() == null) return null;
+
+        if (WhenChecker.isWhenByEnum(expression, bindingContext)) return SwitchGroupKind.ENUM;
+
+        int typeSort = subjectType.getSort();
+        if (typeSort == Type.OBJECT && subjectType.getClassName().equals(String.class.getName())) return SwitchGroupKind.STRING;
+        if (typeSort == Type.INT || typeSort == Type.CHAR || typeSort == Type.SHORT || typeSort == Type.BYTE) {
+            return SwitchGroupKind.INTEGRAL;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of consecutive entries starting from the given one which are dispatched by a single switch,
+     * or 0 if the entry should be checked by its conditions one by one.
+     * Conditions of such entries have no side effects, so the order in which they are checked doesn't matter
+     */
+    public static int getSwitchGroupSize(
+            @NotNull JetWhenExpression expression,
+            int startIndex,
+            @NotNull SwitchGroupKind kind,
+            @NotNull BindingContext bindingContext
+    ) {
+        List<JetWhenEntry> entries = expression.getEntries();
+        int conditionCount = 0;
+        int size = 0;
+        for (int i = startIndex; i < entries.size(); i++) {
+            JetWhenEntry entry = entries.get(i);
+            if (entry.isElse() || !isSwitchableEntry(entry, kind, bindingContext)) break;
+
+            conditionCount += entry.getConditions().length;
+            size++;
+        }
+
+        return conditionCount >= MIN_CONDITIONS_IN_SWITCH_GROUP ? size : 0;
+    }
+
+    public static boolean hasSwitchGroups(
+            @NotNull JetWhenExpression expression,
+            @NotNull SwitchGroupKind kind,
+            @NotNull BindingContext bindingContext
+    ) {
+        for (int i = 0; i < expression.getEntries().size(); i++) {
+            if (getSwitchGroupSize(expression, i, kind, bindingContext) > 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSwitchableEntry(
+            @NotNull JetWhenEntry entry,
+            @NotNull SwitchGroupKind kind,
+            @NotNull BindingContext bindingContext
+    ) {
+        for (JetWhenCondition condition : entry.getConditions()) {
+            if (!isSwitchableCondition(condition, kind, bindingContext)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSwitchableCondition(
+            @NotNull JetWhenCondition condition,
+            @NotNull SwitchGroupKind kind,
+            @NotNull BindingContext bindingContext
+    ) {
+        if (condition instanceof JetWhenConditionInRange) {
+            return kind == SwitchGroupKind.INTEGRAL && getConstantRangeBounds((JetWhenConditionInRange) condition, bindingContext) != null;
+        }
+
+        if (!(condition instanceof JetWhenConditionWithExpression)) return false;
+
+        JetExpression patternExpression = ((JetWhenConditionWithExpression) condition).getExpression();
+        if (patternExpression == null) return false;
+
+        CompileTimeConstant constant = ExpressionCodegen.getCompileTimeConstant(patternExpression, bindingContext);
+        switch (kind) {
+            case ENUM:
+                return constant instanceof EnumValue;
+            case STRING:
+                return constant instanceof StringValue;
+            default:
+                return constant instanceof IntegerValueConstant;
+        }
+    }
+
+    /**
+     * Returns the first and the last value of a range in conditions like `in 'a'..'z'` with constant bounds,
+     * or null if the condition is not like that or the range is too long to be put into a switch
+     */
+    @Nullable
+    public static int[] getConstantRangeBounds(@NotNull JetWhenConditionInRange condition, @NotNull BindingContext bindingContext) {
+        if (condition.isNegated()) return null;
+
+        JetExpression rangeExpression = JetPsiUtil.deparenthesize(condition.getRangeExpression());
+        if (!(rangeExpression instanceof JetBinaryExpression)) return null;
+
+        JetBinaryExpression binaryExpression = (JetBinaryExpression) rangeExpression;
+        if (binaryExpression.getOperationToken() != JetTokens.RANGE) return null;
+
+        JetType rangeType = bindingContext.get(BindingContext.EXPRESSION_TYPE, rangeExpression);
+        if (rangeType == null || !RangeCodegenUtil.isIntLikeRange(rangeType)) return null;
+
+        Integer first = getIntegralConstantValue(binaryExpression.getLeft(), bindingContext);
+        Integer last = getIntegralConstantValue(binaryExpression.getRight(), bindingContext);
+        if (first == null || last == null || (long) last - first >= MAX_RANGE_LENGTH_IN_SWITCH_GROUP) return null;
+
+        return new int[] {first, last};
+    }
+
+    @Nullable
+    private static Integer getIntegralConstantValue(@Nullable JetExpression expression, @NotNull BindingContext bindingContext) {
+        if (expression == null) return null;
+
+        CompileTimeConstant constant = ExpressionCodegen.getCompileTimeConstant(expression, bindingContext);
+        if (!(constant instanceof IntegerValueConstant)) return null;
+
+        Object value = constant.getValue();
+        if (value instanceof Character) return (int) (Character) value;
+        if (value instanceof Number) return ((Number) value).intValue();
+        return null;
+    }
+
+    public static void generateSwitchInstruction(
+            @NotNull InstructionAdapter v,
+            @NotNull NavigableMap<Integer, Label> transitionsTable,
+            @NotNull Label defaultLabel
+    ) {
+        if (transitionsTable.isEmpty()) {
+            v.goTo(defaultLabel);
+            return;
+        }
+
+        int[] keys = new int[transitionsTable.size()];
+        Label[] labels = new Label[transitionsTable.size()];
+        int i = 0;
+
+        for (Map.Entry<Integer, Label> transition : transitionsTable.entrySet()) {
+            keys[i] = transition.getKey();
+            labels[i] = transition.getValue();
+
+            i++;
+        }
+
+        int nlabels = keys.length;
+        int hi = keys[nlabels - 1];
+        int lo = keys[0];
+
+        /*
+         * Heuristic estimation if it's better to use tableswitch or lookupswitch.
+         * From OpenJDK sources
+         */
+        long table_space_cost = 4 + ((long) hi - lo + 1); // words
+        long table_time_cost = 3; // comparisons
+        long lookup_space_cost = 3 + 2 * (long) nlabels;
+        //noinspection UnnecessaryLocalVariable
+        long lookup_time_cost = nlabels;
+
+        boolean useTableSwitch = nlabels > 0 &&
+                                 table_space_cost + 3 * table_time_cost <=
+                                 lookup_space_cost + 3 * lookup_time_cost;
+
+        if (!useTableSwitch) {
+            v.lookupswitch(defaultLabel, keys, labels);
+            return;
+        }
+
+        Label[] sparseLabels = new Label[hi - lo + 1];
+        Arrays.fill(sparseLabels, defaultLabel);
+
+        for (i = 0; i < keys.length; i++) {
+            sparseLabels[keys[i] - lo] = labels[i];
+        }
+
+        v.tableswitch(lo, hi, defaultLabel, sparseLabels);
+    }
 }
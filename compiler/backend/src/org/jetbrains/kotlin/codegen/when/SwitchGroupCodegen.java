@@ -0,0 +1,196 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import com.intellij.openapi.util.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.constants.CompileTimeConstant;
+import org.jetbrains.kotlin.resolve.constants.EnumValue;
+import org.jetbrains.kotlin.resolve.constants.StringValue;
+import org.jetbrains.kotlin.types.JetType;
+import org.jetbrains.kotlin.types.TypeUtils;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+
+import java.util.*;
+
+import static org.jetbrains.kotlin.resolve.BindingContext.EXPRESSION_TYPE;
+
+/**
+ * Generates a switch over a group of consecutive constant entries of a when which also has non-constant entries.
+ * The subject is already stored in a local variable; the switch jumps to the label of the matching entry
+ * or to the given default label where the rest of the entries are checked.
+ */
+public class SwitchGroupCodegen {
+    private static final String HASH_CODE_METHOD_DESC = Type.getMethodDescriptor(Type.INT_TYPE);
+    private static final String EQUALS_METHOD_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Object.class));
+
+    private final JetWhenExpression expression;
+    private final SwitchCodegenUtil.SwitchGroupKind kind;
+    private final ExpressionCodegen codegen;
+    private final BindingContext bindingContext;
+    private final InstructionAdapter v;
+    private final int subjectLocal;
+    private final Type subjectType;
+
+    private final NavigableMap<Integer, Label> transitionsTable = new TreeMap<Integer, Label>();
+
+    public SwitchGroupCodegen(
+            @NotNull JetWhenExpression expression,
+            @NotNull SwitchCodegenUtil.SwitchGroupKind kind,
+            @NotNull ExpressionCodegen codegen,
+            int subjectLocal,
+            @NotNull Type subjectType
+    ) {
+        this.expression = expression;
+        this.kind = kind;
+        this.codegen = codegen;
+        this.bindingContext = codegen.getBindingContext();
+        this.v = codegen.v;
+        this.subjectLocal = subjectLocal;
+        this.subjectType = subjectType;
+    }
+
+    public void generate(@NotNull List<JetWhenEntry> entries, @NotNull List<Label> entryLabels, @NotNull Label defaultLabel) {
+        assert entries.size() == entryLabels.size() : "Each entry should have a label";
+
+        switch (kind) {
+            case ENUM:
+                generateEnumSwitch(entries, entryLabels, defaultLabel);
+                break;
+            case STRING:
+                generateStringSwitch(entries, entryLabels, defaultLabel);
+                break;
+            default:
+                generateIntegralSwitch(entries, entryLabels, defaultLabel);
+        }
+    }
+
+    private void generateIntegralSwitch(@NotNull List<JetWhenEntry> entries, @NotNull List<Label> entryLabels, @NotNull Label defaultLabel) {
+        for (int i = 0; i < entries.size(); i++) {
+            for (JetWhenCondition condition : entries.get(i).getConditions()) {
+                if (condition instanceof JetWhenConditionInRange) {
+                    int[] bounds = SwitchCodegenUtil.getConstantRangeBounds((JetWhenConditionInRange) condition, bindingContext);
+                    assert bounds != null : "Only constant ranges are switchable: " + condition.getText();
+                    for (int value = bounds[0]; value <= bounds[1]; value++) {
+                        putTransitionOnce(value, entryLabels.get(i));
+                    }
+                }
+                else {
+                    Object value = getConstant(condition).getValue();
+                    putTransitionOnce(value instanceof Number ? ((Number) value).intValue() : (Character) value, entryLabels.get(i));
+                }
+            }
+        }
+
+        v.load(subjectLocal, subjectType);
+        SwitchCodegenUtil.generateSwitchInstruction(v, transitionsTable, defaultLabel);
+    }
+
+    private void generateEnumSwitch(@NotNull List<JetWhenEntry> entries, @NotNull List<Label> entryLabels, @NotNull Label defaultLabel) {
+        WhenByEnumsMapping mapping = bindingContext.get(CodegenBinding.MAPPING_FOR_WHEN_BY_ENUM, expression);
+        assert mapping != null : "Mapping should be created for a when by enum with switch groups: " + expression.getText();
+
+        for (int i = 0; i < entries.size(); i++) {
+            for (JetWhenCondition condition : entries.get(i).getConditions()) {
+                putTransitionOnce(mapping.getIndexByEntry((EnumValue) getConstant(condition)), entryLabels.get(i));
+            }
+        }
+
+        codegen.getState().getMappingsClassesForWhenByEnum().generateMappingsClassForExpression(expression);
+
+        generateNullCheckIfNeeded(defaultLabel);
+
+        v.getstatic(
+                mapping.getMappingsClassInternalName(),
+                mapping.getFieldName(),
+                MappingClassesForWhenByEnumCodegen.MAPPINGS_FIELD_DESCRIPTOR
+        );
+        v.load(subjectLocal, subjectType);
+        v.invokevirtual(subjectType.getInternalName(), "ordinal", Type.getMethodDescriptor(Type.INT_TYPE), false);
+        v.aload(Type.INT_TYPE);
+
+        SwitchCodegenUtil.generateSwitchInstruction(v, transitionsTable, defaultLabel);
+    }
+
+    private void generateStringSwitch(@NotNull List<JetWhenEntry> entries, @NotNull List<Label> entryLabels, @NotNull Label defaultLabel) {
+        Map<Integer, List<Pair<String, Label>>> hashCodesToStringAndEntryLabel = new LinkedHashMap<Integer, List<Pair<String, Label>>>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            for (JetWhenCondition condition : entries.get(i).getConditions()) {
+                String value = ((StringValue) getConstant(condition)).getValue();
+                int hashCode = value.hashCode();
+
+                if (!transitionsTable.containsKey(hashCode)) {
+                    transitionsTable.put(hashCode, new Label());
+                    hashCodesToStringAndEntryLabel.put(hashCode, new ArrayList<Pair<String, Label>>());
+                }
+                hashCodesToStringAndEntryLabel.get(hashCode).add(new Pair<String, Label>(value, entryLabels.get(i)));
+            }
+        }
+
+        generateNullCheckIfNeeded(defaultLabel);
+
+        v.load(subjectLocal, subjectType);
+        v.invokevirtual(subjectType.getInternalName(), "hashCode", HASH_CODE_METHOD_DESC, false);
+        SwitchCodegenUtil.generateSwitchInstruction(v, transitionsTable, defaultLabel);
+
+        for (Map.Entry<Integer, List<Pair<String, Label>>> entry : hashCodesToStringAndEntryLabel.entrySet()) {
+            v.visitLabel(transitionsTable.get(entry.getKey()));
+
+            for (Pair<String, Label> stringAndEntryLabel : entry.getValue()) {
+                v.load(subjectLocal, subjectType);
+                v.aconst(stringAndEntryLabel.first);
+                v.invokevirtual(subjectType.getInternalName(), "equals", EQUALS_METHOD_DESC, false);
+                v.ifne(stringAndEntryLabel.second);
+            }
+            v.goTo(defaultLabel);
+        }
+    }
+
+    // None of the constants of a group is null
+    private void generateNullCheckIfNeeded(@NotNull Label defaultLabel) {
+        JetType subjectJetType = bindingContext.get(EXPRESSION_TYPE, expression.getSubjectExpression());
+        assert subjectJetType != null : "subject type can't be null (i.e. void)";
+
+        if (TypeUtils.isNullableType(subjectJetType)) {
+            v.load(subjectLocal, subjectType);
+            v.ifnull(defaultLabel);
+        }
+    }
+
+    private void putTransitionOnce(int value, @NotNull Label entryLabel) {
+        if (!transitionsTable.containsKey(value)) {
+            transitionsTable.put(value, entryLabel);
+        }
+    }
+
+    @NotNull
+    private CompileTimeConstant getConstant(@NotNull JetWhenCondition condition) {
+        JetExpression patternExpression = ((JetWhenConditionWithExpression) condition).getExpression();
+        assert patternExpression != null : "expression in when should not be null";
+
+        CompileTimeConstant constant = ExpressionCodegen.getCompileTimeConstant(patternExpression, bindingContext);
+        assert constant != null : "Only constant conditions are switchable: " + condition.getText();
+        return constant;
+    }
+}
@@ -43,6 +43,10 @@ public abstract class CommonCompilerArguments {
     @Argument(value = "Xno-inline", description = "Disable method inlining")
     public boolean noInline;
 
+    @Argument(value = "Xwarning-limit", description = "Report at most <count> warnings of each kind")
+    @ValueDescription("<count>")
+    public String warningLimit;
+
     @Argument(value = "Xplugin", description = "Load plugins from the given classpath")
     @ValueDescription("<path>")
     public String[] pluginClasspaths;
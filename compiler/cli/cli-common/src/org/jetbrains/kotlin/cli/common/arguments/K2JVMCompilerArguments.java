@@ -66,6 +66,18 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xno-optimize", description = "Disable optimizations")
     public boolean noOptimize;
 
+    @Argument(value = "Xjvm8-target", description = "Generate JVM 1.8 bytecode, creating SAM adapters with invokedynamic")
+    public boolean jvm8Target;
+
+    @Argument(value = "Xstrip-unused-synthetics", description = "Remove synthetic accessors, inlined lambda classes and private inline functions which are unused after inlining")
+    public boolean stripUnusedSynthetics;
+
+    @Argument(value = "Xparallel-backend", description = "Optimize methods and compute stack map frames on a pool of worker threads")
+    public boolean parallelBackend;
+
+    @Argument(value = "Xparallel-body-resolve", description = "Resolve function bodies on a pool of worker threads")
+    public boolean parallelBodyResolve;
+
     @Override
     @NotNull
     public String executableScriptFileName() {
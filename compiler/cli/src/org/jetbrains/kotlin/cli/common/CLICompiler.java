@@ -178,6 +178,36 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> {
                                 CompilerMessageLocation.NO_LOCATION);
     }
 
+    /**
+     * Puts the maximum number of warnings of each kind to report into the configuration.
+     * Returns false if the limit is specified incorrectly.
+     */
+    protected static boolean putWarningLimit(
+            @NotNull CompilerConfiguration configuration,
+            @NotNull CommonCompilerArguments arguments,
+            @NotNull MessageCollector messageCollector
+    ) {
+        if (arguments.suppressWarnings) {
+            // Warnings are filtered out by the message collector anyway, so there's no need to render them
+            configuration.put(CLIConfigurationKeys.WARNING_LIMIT, 0);
+            return true;
+        }
+        if (arguments.warningLimit == null) return true;
+
+        try {
+            int limit = Integer.parseInt(arguments.warningLimit);
+            if (limit >= 0) {
+                configuration.put(CLIConfigurationKeys.WARNING_LIMIT, limit);
+                return true;
+            }
+        }
+        catch (NumberFormatException ignored) {
+        }
+        messageCollector.report(CompilerMessageSeverity.ERROR, "Warning limit should be a non-negative number: " + arguments.warningLimit,
+                                CompilerMessageLocation.NO_LOCATION);
+        return false;
+    }
+
     /**
      * Useful main for derived command line tools
      */
@@ -26,6 +26,8 @@ public class CLIConfigurationKeys {
             CompilerConfigurationKey.create("message collector");
     public static final CompilerConfigurationKey<List<CompilerPlugin>> COMPILER_PLUGINS =
             CompilerConfigurationKey.create("compiler plugins");
+    public static final CompilerConfigurationKey<Integer> WARNING_LIMIT =
+            CompilerConfigurationKey.create("maximum number of warnings of each kind");
 
     private CLIConfigurationKeys() {
     }
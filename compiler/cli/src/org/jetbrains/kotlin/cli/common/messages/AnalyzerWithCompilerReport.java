@@ -42,7 +42,9 @@ import org.jetbrains.kotlin.resolve.diagnostics.Diagnostics;
 import org.jetbrains.kotlin.resolve.jvm.JvmClassName;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.intellij.openapi.util.io.FileUtil.toSystemDependentName;
 import static org.jetbrains.kotlin.diagnostics.DiagnosticUtils.sortedDiagnostics;
@@ -69,9 +71,19 @@ public final class AnalyzerWithCompilerReport {
     @NotNull
     private final MessageCollector messageCollectorWrapper;
     @Nullable
+    private final Integer warningLimit;
+    @Nullable
     private AnalysisResult analysisResult = null;
 
-    public AnalyzerWithCompilerReport(@NotNull final MessageCollector collector) {
+    public AnalyzerWithCompilerReport(@NotNull MessageCollector collector) {
+        this(collector, null);
+    }
+
+    /**
+     * @param warningLimit maximum number of warnings of each kind to report, or null to report all of them
+     */
+    public AnalyzerWithCompilerReport(@NotNull final MessageCollector collector, @Nullable Integer warningLimit) {
+        this.warningLimit = warningLimit;
         messageCollectorWrapper = new MessageCollector() {
             @Override
             public void report(@NotNull CompilerMessageSeverity severity,
@@ -161,10 +173,39 @@ public final class AnalyzerWithCompilerReport {
     }
 
     public static boolean reportDiagnostics(@NotNull Diagnostics diagnostics, @NotNull MessageCollector messageCollector) {
+        return reportDiagnostics(diagnostics, messageCollector, null);
+    }
+
+    /**
+     * Warnings of each kind beyond the first {@code warningLimit} ones are neither rendered nor reported,
+     * only their number is reported for each kind.
+     */
+    public static boolean reportDiagnostics(
+            @NotNull Diagnostics diagnostics,
+            @NotNull MessageCollector messageCollector,
+            @Nullable Integer warningLimit
+    ) {
         boolean hasErrors = false;
+        Map<DiagnosticFactory<?>, Integer> warningCounts = new LinkedHashMap<DiagnosticFactory<?>, Integer>();
         for (Diagnostic diagnostic : sortedDiagnostics(diagnostics.all())) {
+            if (warningLimit != null && diagnostic.getSeverity() == Severity.WARNING) {
+                Integer count = warningCounts.get(diagnostic.getFactory());
+                int newCount = count == null ? 1 : count + 1;
+                warningCounts.put(diagnostic.getFactory(), newCount);
+                if (newCount > warningLimit) continue;
+            }
             hasErrors |= reportDiagnostic(diagnostic, messageCollector);
         }
+
+        for (Map.Entry<DiagnosticFactory<?>, Integer> entry : warningCounts.entrySet()) {
+            //noinspection ConstantConditions
+            int omitted = entry.getValue() - warningLimit;
+            if (omitted > 0) {
+                messageCollector.report(CompilerMessageSeverity.WARNING,
+                                        omitted + " more " + entry.getKey().getName() + " warning(s) not reported",
+                                        CompilerMessageLocation.NO_LOCATION);
+            }
+        }
         return hasErrors;
     }
 
@@ -233,7 +274,7 @@ public final class AnalyzerWithCompilerReport {
         reportAbiVersionErrors();
         reportSyntaxErrors(files);
         //noinspection ConstantConditions
-        reportDiagnostics(analysisResult.getBindingContext().getDiagnostics(), messageCollectorWrapper);
+        reportDiagnostics(analysisResult.getBindingContext().getDiagnostics(), messageCollectorWrapper, warningLimit);
         reportIncompleteHierarchies();
         reportAlternativeSignatureErrors();
     }
@@ -95,6 +95,10 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
 
         CompilerConfiguration configuration = new CompilerConfiguration();
         configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageCollector);
+        if (!putWarningLimit(configuration, arguments, messageCollector)) {
+            return ExitCode.INTERNAL_ERROR;
+        }
+        Integer warningLimit = configuration.get(CLIConfigurationKeys.WARNING_LIMIT);
 
         CompilerJarLocator locator = services.get(CompilerJarLocator.class);
         if (locator != null) {
@@ -130,7 +134,7 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
             return COMPILATION_ERROR;
         }
 
-        AnalyzerWithCompilerReport analyzerWithCompilerReport = analyzeAndReportErrors(messageCollector, sourcesFiles, config);
+        AnalyzerWithCompilerReport analyzerWithCompilerReport = analyzeAndReportErrors(messageCollector, sourcesFiles, config, warningLimit);
         if (analyzerWithCompilerReport.hasErrors()) {
             return COMPILATION_ERROR;
         }
@@ -172,7 +176,7 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
             throw new RuntimeException(e);
         }
 
-        AnalyzerWithCompilerReport.reportDiagnostics(translationResult.getDiagnostics(), messageCollector);
+        AnalyzerWithCompilerReport.reportDiagnostics(translationResult.getDiagnostics(), messageCollector, warningLimit);
 
         if (!(translationResult instanceof TranslationResult.Success)) return ExitCode.COMPILATION_ERROR;
 
@@ -216,8 +220,8 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
     }
 
     private static AnalyzerWithCompilerReport analyzeAndReportErrors(@NotNull MessageCollector messageCollector,
-            @NotNull final List<JetFile> sources, @NotNull final Config config) {
-        AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(messageCollector);
+            @NotNull final List<JetFile> sources, @NotNull final Config config, @Nullable Integer warningLimit) {
+        AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(messageCollector, warningLimit);
         analyzerWithCompilerReport.analyzeAndReport(sources, new Function0<AnalysisResult>() {
             @Override
             public AnalysisResult invoke() {
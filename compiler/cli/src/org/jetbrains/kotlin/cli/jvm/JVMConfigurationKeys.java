@@ -42,6 +42,14 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("disable inline");
     public static final CompilerConfigurationKey<Boolean> DISABLE_OPTIMIZATION =
             CompilerConfigurationKey.create("disable optimization");
+    public static final CompilerConfigurationKey<Boolean> JVM_8_TARGET =
+            CompilerConfigurationKey.create("generate JVM 1.8 bytecode");
+    public static final CompilerConfigurationKey<Boolean> STRIP_UNUSED_SYNTHETICS =
+            CompilerConfigurationKey.create("strip unused synthetics");
+    public static final CompilerConfigurationKey<Boolean> PARALLEL_BACKEND =
+            CompilerConfigurationKey.create("parallel backend");
+    public static final CompilerConfigurationKey<Boolean> PARALLEL_BODY_RESOLVE =
+            CompilerConfigurationKey.create("parallel body resolve");
 
     public static final CompilerConfigurationKey<IncrementalCacheProvider> INCREMENTAL_CACHE_PROVIDER =
             CompilerConfigurationKey.create("incremental cache provider");
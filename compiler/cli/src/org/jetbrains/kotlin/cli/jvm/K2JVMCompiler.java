@@ -70,6 +70,9 @@ public class K2JVMCompiler extends CLICompiler<K2JVMCompilerArguments> {
 
         CompilerConfiguration configuration = new CompilerConfiguration();
         configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageCollector);
+        if (!putWarningLimit(configuration, arguments, messageCollector)) {
+            return INTERNAL_ERROR;
+        }
 
         IncrementalCacheProvider incrementalCacheProvider = services.get(IncrementalCacheProvider.class);
         if (incrementalCacheProvider != null) {
@@ -202,6 +205,10 @@ public class K2JVMCompiler extends CLICompiler<K2JVMCompilerArguments> {
         configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, arguments.noParamAssertions);
         configuration.put(JVMConfigurationKeys.DISABLE_INLINE, arguments.noInline);
         configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize);
+        configuration.put(JVMConfigurationKeys.JVM_8_TARGET, arguments.jvm8Target);
+        configuration.put(JVMConfigurationKeys.STRIP_UNUSED_SYNTHETICS, arguments.stripUnusedSynthetics);
+        configuration.put(JVMConfigurationKeys.PARALLEL_BACKEND, arguments.parallelBackend);
+        configuration.put(JVMConfigurationKeys.PARALLEL_BODY_RESOLVE, arguments.parallelBodyResolve);
     }
 
     /**
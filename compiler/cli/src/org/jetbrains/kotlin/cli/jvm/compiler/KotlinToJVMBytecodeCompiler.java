@@ -64,6 +64,10 @@ import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class KotlinToJVMBytecodeCompiler {
 
@@ -290,32 +294,57 @@ public class KotlinToJVMBytecodeCompiler {
         return generate(environment, result, environment.getSourceFiles(), null, null);
     }
 
+    @NotNull
+    private static ExecutorService createBodyResolveExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NotNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "Kotlin body resolve " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
     @Nullable
     private static AnalysisResult analyze(@NotNull final JetCoreEnvironment environment) {
         MessageCollector collector = environment.getConfiguration().get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY);
         assert collector != null;
 
-        AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(collector);
-        analyzerWithCompilerReport.analyzeAndReport(
-                environment.getSourceFiles(), new Function0<AnalysisResult>() {
-                    @NotNull
-                    @Override
-                    public AnalysisResult invoke() {
-                        BindingTrace sharedTrace = new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace();
-                        ModuleDescriptorImpl analyzeModule = TopDownAnalyzerFacadeForJVM.createSealedJavaModule();
-
-                        return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
-                                environment.getProject(),
-                                ContextPackage.GlobalContext(),
-                                environment.getSourceFiles(),
-                                sharedTrace,
-                                analyzeModule,
-                                environment.getConfiguration().get(JVMConfigurationKeys.MODULE_IDS),
-                                environment.getConfiguration().get(JVMConfigurationKeys.INCREMENTAL_CACHE_PROVIDER)
-                        );
+        AnalyzerWithCompilerReport analyzerWithCompilerReport =
+                new AnalyzerWithCompilerReport(collector, environment.getConfiguration().get(CLIConfigurationKeys.WARNING_LIMIT));
+        final ExecutorService bodyResolveExecutor =
+                environment.getConfiguration().get(JVMConfigurationKeys.PARALLEL_BODY_RESOLVE, false) ? createBodyResolveExecutor() : null;
+        try {
+            analyzerWithCompilerReport.analyzeAndReport(
+                    environment.getSourceFiles(), new Function0<AnalysisResult>() {
+                        @NotNull
+                        @Override
+                        public AnalysisResult invoke() {
+                            BindingTrace sharedTrace = new CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace();
+                            ModuleDescriptorImpl analyzeModule = TopDownAnalyzerFacadeForJVM.createSealedJavaModule();
+
+                            return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
+                                    environment.getProject(),
+                                    ContextPackage.GlobalContext(),
+                                    environment.getSourceFiles(),
+                                    sharedTrace,
+                                    analyzeModule,
+                                    environment.getConfiguration().get(JVMConfigurationKeys.MODULE_IDS),
+                                    environment.getConfiguration().get(JVMConfigurationKeys.INCREMENTAL_CACHE_PROVIDER),
+                                    bodyResolveExecutor
+                            );
+                        }
                     }
-                }
-        );
+            );
+        }
+        finally {
+            if (bodyResolveExecutor != null) {
+                bodyResolveExecutor.shutdownNow();
+            }
+        }
 
         AnalysisResult result = analyzerWithCompilerReport.getAnalysisResult();
         assert result != null : "AnalysisResult should be non-null, compiling: " + environment.getSourceFiles();
@@ -367,7 +396,10 @@ public class KotlinToJVMBytecodeCompiler {
                 packagesWithObsoleteParts,
                 moduleId,
                 diagnosticHolder,
-                outputDirectory
+                outputDirectory,
+                configuration.get(JVMConfigurationKeys.JVM_8_TARGET, false),
+                configuration.get(JVMConfigurationKeys.STRIP_UNUSED_SYNTHETICS, false),
+                configuration.get(JVMConfigurationKeys.PARALLEL_BACKEND, false)
         );
         KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION);
         AnalyzerWithCompilerReport.reportDiagnostics(
@@ -375,7 +407,8 @@ public class KotlinToJVMBytecodeCompiler {
                         diagnosticHolder.getBindingContext().getDiagnostics(),
                         result.getBindingContext().getDiagnostics()
                 ),
-                environment.getConfiguration().get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY)
+                environment.getConfiguration().get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY),
+                environment.getConfiguration().get(CLIConfigurationKeys.WARNING_LIMIT)
         );
         return generationState;
     }
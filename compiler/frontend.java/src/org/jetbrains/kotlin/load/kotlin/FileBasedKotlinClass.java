@@ -51,7 +51,7 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
         this.innerClasses = innerClasses;
     }
 
-    private static class OuterAndInnerName {
+    public static class OuterAndInnerName {
         public final String outerInternalName;
         public final String innerSimpleName;
 
@@ -61,7 +61,7 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
         }
     }
 
-    protected static class InnerClassesInfo {
+    public static class InnerClassesInfo {
         private Map<String, OuterAndInnerName> map = null;
 
         public void add(@NotNull String name, @Nullable String outerName, @Nullable String innerName) {
@@ -75,6 +75,11 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
         public OuterAndInnerName get(@NotNull String name) {
             return map == null ? null : map.get(name);
         }
+
+        @NotNull
+        public Map<String, OuterAndInnerName> getAll() {
+            return map == null ? Collections.<String, OuterAndInnerName>emptyMap() : Collections.unmodifiableMap(map);
+        }
     }
 
     @NotNull
@@ -133,6 +138,11 @@ public abstract class FileBasedKotlinClass implements KotlinJvmBinaryClass {
         return classHeader;
     }
 
+    @NotNull
+    public InnerClassesInfo getInnerClasses() {
+        return innerClasses;
+    }
+
     @Override
     public void loadClassAnnotations(@NotNull final AnnotationVisitor annotationVisitor) {
         new ClassReader(getFileContents()).accept(new ClassVisitor(ASM5) {
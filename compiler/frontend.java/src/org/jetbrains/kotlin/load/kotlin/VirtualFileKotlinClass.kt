@@ -75,6 +75,13 @@ public class VirtualFileKotlinClass private(
             return null
         }
 
+        /**
+         * Creates a class whose name and header were read from the [file] earlier, e.g. stored in an index.
+         * The file is only read if annotations or members of the class are requested
+         */
+        fun create(file: VirtualFile, classId: ClassId, classHeader: KotlinClassHeader, innerClasses: FileBasedKotlinClass.InnerClassesInfo): VirtualFileKotlinClass =
+                VirtualFileKotlinClass(file, classId, classHeader, innerClasses)
+
         private fun renderFileReadingErrorMessage(file: VirtualFile): String =
                 "Could not read file: ${file.getPath()}; size in bytes: ${file.getLength()}; file type: ${file.getFileType().getName()}"
     }
@@ -43,6 +43,7 @@ import org.jetbrains.kotlin.resolve.lazy.declarations.FileBasedDeclarationProvid
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public enum TopDownAnalyzerFacadeForJVM {
 
@@ -89,12 +90,31 @@ public enum TopDownAnalyzerFacadeForJVM {
             @NotNull ModuleDescriptorImpl module,
             @Nullable List<String> moduleIds,
             @Nullable IncrementalCacheProvider incrementalCacheProvider
+    ) {
+        return analyzeFilesWithJavaIntegrationWithCustomContext(
+                project, globalContext, files, trace, module, moduleIds, incrementalCacheProvider, null);
+    }
+
+    /**
+     * @param bodyResolveExecutor if not null, function bodies are resolved on it, the caller is responsible for shutting it down
+     */
+    @NotNull
+    public static AnalysisResult analyzeFilesWithJavaIntegrationWithCustomContext(
+            @NotNull Project project,
+            @NotNull GlobalContext globalContext,
+            @NotNull Collection<JetFile> files,
+            @NotNull BindingTrace trace,
+            @NotNull ModuleDescriptorImpl module,
+            @Nullable List<String> moduleIds,
+            @Nullable IncrementalCacheProvider incrementalCacheProvider,
+            @Nullable Executor bodyResolveExecutor
     ) {
         TopDownAnalysisParameters topDownAnalysisParameters = TopDownAnalysisParameters.create(
                 globalContext.getStorageManager(),
                 globalContext.getExceptionTracker(),
                 false,
-                false
+                false,
+                bodyResolveExecutor
         );
 
         return analyzeFilesWithJavaIntegration(
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.DummyHolder;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.idea.JetLanguage;
+import org.jetbrains.kotlin.lexer.JetLexer;
+import org.jetbrains.kotlin.lexer.JetTokens;
+import org.jetbrains.kotlin.parsing.JetParser;
+import org.jetbrains.kotlin.parsing.JetParserDefinition;
+import org.jetbrains.kotlin.psi.JetBlockExpression;
+
+/**
+ * Element type of {@link JetBlockExpression}. A block is reparsed on its own when an edit doesn't touch anything outside of it
+ * and its new text is still a single pair of balanced braces which isn't a function literal with parameters.
+ * Class bodies have stubs, so their element type can't be a lazily parsed one and an edit between members reparses the file.
+ */
+public class JetBlockExpressionElementType extends IReparseableElementType {
+    public JetBlockExpressionElementType(@NotNull @NonNls String debugName) {
+        super(debugName, JetLanguage.INSTANCE);
+    }
+
+    @Override
+    public ASTNode parseContents(ASTNode chameleon) {
+        PsiElement holder = chameleon.getTreeParent().getPsi();
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(holder.getProject(), chameleon, null, getLanguage(), chameleon.getChars());
+        return JetParser.parseReparseableBlock(builder, !isBracelessBlock(holder)).getFirstChildNode();
+    }
+
+    @Override
+    public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project) {
+        return isSingleBlock(buffer) && !isFunctionLiteral(buffer);
+    }
+
+    // The reparsed block is put into a holder whose context is the block being replaced
+    private static boolean isBracelessBlock(@NotNull PsiElement holder) {
+        PsiElement replacedBlock = holder instanceof DummyHolder ? holder.getContext() : null;
+        ASTNode parent = replacedBlock != null ? replacedBlock.getNode().getTreeParent() : null;
+        if (parent == null) return false;
+
+        IElementType type = parent.getElementType();
+        return type == JetNodeTypes.FUNCTION_LITERAL || type == JetNodeTypes.SCRIPT || type == JetNodeTypes.BLOCK_CODE_FRAGMENT;
+    }
+
+    private static boolean isSingleBlock(@NotNull CharSequence buffer) {
+        JetLexer lexer = new JetLexer();
+        lexer.start(buffer);
+        if (lexer.getTokenType() != JetTokens.LBRACE) return false;
+
+        int depth = 0;
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (depth == 0 && lexer.getTokenStart() > 0) return false;
+
+            if (type == JetTokens.LBRACE) {
+                depth++;
+            }
+            else if (type == JetTokens.RBRACE) {
+                depth--;
+            }
+            lexer.advance();
+        }
+        return depth == 0;
+    }
+
+    // Braced blocks in control structures are parsed as function literals when they start with parameters,
+    // then the element itself changes and the reparse is left to the enclosing element
+    private static boolean isFunctionLiteral(@NotNull CharSequence buffer) {
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(new JetParserDefinition(), new JetLexer(), buffer);
+        return JetParser.parseReparseableBlock(builder, true).getElementType() != JetNodeTypes.BLOCK;
+    }
+}
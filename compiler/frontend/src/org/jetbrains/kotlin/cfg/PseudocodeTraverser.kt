@@ -61,107 +61,146 @@ public fun <D> Pseudocode.collectData(
         updateEdge: (Instruction, Instruction, D) -> D,
         initialDataValue: D
 ): Map<Instruction, Edges<D>> {
+    val graph = DataFlowGraph(this, traversalOrder, mergeDataWithLocalDeclarations)
+
+    val initialEdge = Edges(initialDataValue, initialDataValue)
+    val data = ArrayList<Edges<D>>(graph.size)
+    for (i in 0..graph.size - 1) {
+        data.add(initialEdge)
+    }
+
+    // Instructions are numbered in the order of the traversal, so the worklist is processed in that order.
+    // An instruction is revisited only when the data of one of its inputs has changed.
+    val pending = BitSet(graph.size)
+    for (i in 0..graph.size - 1) {
+        if (graph.isProcessed[i]) pending.set(i)
+    }
+
+    var index = pending.nextSetBit(0)
+    while (index >= 0) {
+        pending.clear(index)
+
+        val instruction = graph.instructions[index]
+        val inputs = graph.inputs[index]
+        val newValue: Edges<D>
+        if (graph.isLocalDeclarationExit[index]) {
+            val lastInstruction = graph.instructions[inputs[0]]
+            val lastData = data[inputs[0]]
+            newValue = Edges(updateEdge(lastInstruction, instruction, lastData.incoming),
+                             updateEdge(lastInstruction, instruction, lastData.outgoing))
+        }
+        else {
+            val incomingEdgesData = HashSet<D>()
+            for (input in inputs) {
+                incomingEdgesData.add(updateEdge(graph.instructions[input], instruction, data[input].outgoing))
+            }
+            newValue = mergeEdges(instruction, incomingEdgesData)
+        }
+
+        if (data[index] != newValue) {
+            data[index] = newValue
+            for (dependent in graph.dependents[index]) {
+                pending.set(dependent)
+            }
+        }
+
+        index = pending.nextSetBit(index + 1)
+        if (index < 0) index = pending.nextSetBit(0)
+    }
+
     val edgesMap = LinkedHashMap<Instruction, Edges<D>>()
-    initializeEdgesMap(edgesMap, initialDataValue)
-    edgesMap.put(getStartInstruction(traversalOrder), Edges(initialDataValue, initialDataValue))
-
-    val changed = BooleanArray(1)
-    changed[0] = true
-    while (changed[0]) {
-        changed[0] = false
-        collectDataFromSubgraph(
-                traversalOrder, mergeDataWithLocalDeclarations, edgesMap,
-                mergeEdges, updateEdge, Collections.emptyList<Instruction>(), changed, false)
+    for (instruction in graph.instructionsInDeclarationOrder) {
+        edgesMap.put(instruction, data[graph.indexOf(instruction)])
     }
     return edgesMap
 }
 
-private fun <D> Pseudocode.initializeEdgesMap(
-        edgesMap: MutableMap<Instruction, Edges<D>>,
-        initialDataValue: D
+/**
+ * Instructions of a pseudocode including the bodies of its local declarations, numbered in the order in which
+ * they are analyzed, along with the instructions each of them takes its incoming data from.
+ */
+private class DataFlowGraph(
+        pseudocode: Pseudocode,
+        private val traversalOrder: TraversalOrder,
+        private val mergeDataWithLocalDeclarations: Boolean
 ) {
-    val instructions = getInstructions()
-    val initialEdge = Edges(initialDataValue, initialDataValue)
-    for (instruction in instructions) {
-        edgesMap.put(instruction, initialEdge)
-        if (instruction is LocalFunctionDeclarationInstruction) {
-            instruction.body.initializeEdgesMap(edgesMap, initialDataValue)
-        }
+    val instructions = ArrayList<Instruction>()
+    val isProcessed = ArrayList<Boolean>()
+    val isLocalDeclarationExit = ArrayList<Boolean>()
+    val inputs = ArrayList<IntArray>()
+    val dependents = ArrayList<MutableList<Int>>()
+    val instructionsInDeclarationOrder = ArrayList<Instruction>()
+
+    private val indices = IdentityHashMap<Instruction, Int>()
+    private val inputInstructions = ArrayList<Collection<Instruction>>()
+
+    {
+        addSubgraph(pseudocode, Collections.emptyList<Instruction>(), false)
+        pseudocode.collectInstructionsInDeclarationOrder()
+        computeDependencies()
     }
-}
 
-private fun <D> Pseudocode.collectDataFromSubgraph(
-        traversalOrder: TraversalOrder,
-        mergeDataWithLocalDeclarations: Boolean,
-        edgesMap: MutableMap<Instruction, Edges<D>>,
-        mergeEdges: (Instruction, Collection<D>) -> Edges<D>,
-        updateEdge: (Instruction, Instruction, D) -> D,
-        previousSubGraphInstructions: Collection<Instruction>,
-        changed: BooleanArray,
-        isLocal: Boolean
-) {
-    val instructions = getInstructions(traversalOrder)
-    val startInstruction = getStartInstruction(traversalOrder)
+    val size: Int
+        get() = instructions.size()
 
-    for (instruction in instructions) {
-        val isStart = instruction.isStartInstruction(traversalOrder)
-        if (!isLocal && isStart)
-            continue
+    fun indexOf(instruction: Instruction): Int = indices[instruction] ?: -1
 
-        fun getPreviousIncludingSubGraphInstructions(): Collection<Instruction> {
-            val previous = instruction.getPreviousInstructions(traversalOrder)
-            if (instruction != startInstruction || previousSubGraphInstructions.isEmpty()) {
-                return previous
+    private fun addInstruction(instruction: Instruction, processed: Boolean, inputInstructions: Collection<Instruction>, isLocalDeclarationExit: Boolean) {
+        indices.put(instruction, instructions.size())
+        instructions.add(instruction)
+        isProcessed.add(processed)
+        this.inputInstructions.add(inputInstructions)
+        this.isLocalDeclarationExit.add(isLocalDeclarationExit)
+    }
+
+    private fun addSubgraph(pseudocode: Pseudocode, previousSubGraphInstructions: Collection<Instruction>, isLocal: Boolean) {
+        val startInstruction = pseudocode.getStartInstruction(traversalOrder)
+        for (instruction in pseudocode.getInstructions(traversalOrder)) {
+            if (!isLocal && instruction.isStartInstruction(traversalOrder)) {
+                addInstruction(instruction, false, Collections.emptyList(), false)
+                continue
             }
-            val result = ArrayList(previous)
-            result.addAll(previousSubGraphInstructions)
-            return result
-        }
-        val previousInstructions = getPreviousIncludingSubGraphInstructions()
-
-        fun updateEdgeDataForInstruction(
-                previousValue: Edges<D>?,
-                newValue: Edges<D>?
-        ) {
-            if (previousValue != newValue && newValue != null) {
-                changed[0] = true
-                edgesMap.put(instruction, newValue)
+
+            val previous = instruction.getPreviousInstructions(traversalOrder)
+            val previousInstructions =
+                    if (instruction != startInstruction || previousSubGraphInstructions.isEmpty()) previous
+                    else previous + previousSubGraphInstructions
+
+            if (instruction is LocalFunctionDeclarationInstruction) {
+                val body = instruction.body
+                addSubgraph(body, if (mergeDataWithLocalDeclarations) previousInstructions else Collections.emptyList(), true)
+                if (mergeDataWithLocalDeclarations) {
+                    addInstruction(instruction, true, listOf(body.getLastInstruction(traversalOrder)), true)
+                    continue
+                }
             }
+            addInstruction(instruction, true, previousInstructions, false)
         }
+    }
 
-        if (instruction is LocalFunctionDeclarationInstruction) {
-            val subroutinePseudocode = instruction.body
-            val previous = if (mergeDataWithLocalDeclarations) previousInstructions else Collections.emptyList()
-            subroutinePseudocode.collectDataFromSubgraph(
-                    traversalOrder, mergeDataWithLocalDeclarations,
-                    edgesMap, mergeEdges, updateEdge, previous, changed, true)
-            if (mergeDataWithLocalDeclarations) {
-                val lastInstruction = subroutinePseudocode.getLastInstruction(traversalOrder)
-                val previousValue = edgesMap.get(instruction)
-                val newValue = edgesMap.get(lastInstruction)
-                val updatedValue =
-                        if (newValue == null)
-                            null
-                        else
-                            Edges(updateEdge(lastInstruction, instruction, newValue.incoming),
-                                  updateEdge(lastInstruction, instruction, newValue.outgoing))
-                updateEdgeDataForInstruction(previousValue, updatedValue)
-                continue
+    private fun Pseudocode.collectInstructionsInDeclarationOrder() {
+        for (instruction in getInstructions()) {
+            instructionsInDeclarationOrder.add(instruction)
+            if (instruction is LocalFunctionDeclarationInstruction) {
+                instruction.body.collectInstructionsInDeclarationOrder()
             }
         }
-        val previousDataValue = edgesMap.get(instruction)
-
-        val incomingEdgesData = HashSet<D>()
+    }
 
-        for (previousInstruction in previousInstructions) {
-            val previousData = edgesMap.get(previousInstruction)
-            if (previousData != null) {
-                incomingEdgesData.add(updateEdge(
-                        previousInstruction, instruction, previousData.outgoing))
+    private fun computeDependencies() {
+        for (i in 0..size - 1) {
+            dependents.add(ArrayList<Int>())
+        }
+        for (index in 0..size - 1) {
+            val inputIndices = inputInstructions[index].map { indexOf(it) }.filter { it >= 0 }
+            val inputArray = IntArray(inputIndices.size())
+            for ((i, input) in inputIndices.withIndex()) {
+                inputArray[i] = input
+                dependents[input].add(index)
             }
+            inputs.add(inputArray)
         }
-        val mergedData = mergeEdges(instruction, incomingEdgesData)
-        updateEdgeDataForInstruction(previousDataValue, mergedData)
+        inputInstructions.clear()
     }
 }
 
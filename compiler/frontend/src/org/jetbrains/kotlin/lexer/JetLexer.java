@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.lexer;
 
 import com.intellij.lexer.FlexAdapter;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.Reader;
 
@@ -24,4 +25,10 @@ public class JetLexer extends FlexAdapter {
     public JetLexer() {
         super(new _JetLexer((Reader) null));
     }
+
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+        ((_JetLexer) getFlex()).resetNestingState();
+        super.start(buffer, startOffset, endOffset, initialState);
+    }
 }
@@ -640,6 +640,16 @@ class _JetLexer implements FlexLexer {
         yybegin(state.state);
     }
 
+    /**
+     * Forgets the nesting of string templates and comments left from the previous text, so that the lexer
+     * can be restarted from any offset where it was in its initial state.
+     */
+    public void resetNestingState() {
+        states.clear();
+        lBraceCount = 0;
+        commentDepth = 0;
+    }
+
     private IElementType commentStateToTokenType(int state) {
         switch (state) {
             case BLOCK_COMMENT:
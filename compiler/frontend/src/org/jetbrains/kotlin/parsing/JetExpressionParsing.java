@@ -988,6 +988,13 @@ public class JetExpressionParsing extends AbstractJetParsing {
         parseFunctionLiteral(false);
     }
 
+    /*
+     * Parses a block if there are no function literal parameters after the brace, and a function literal otherwise
+     */
+    /*package*/ void parseFunctionLiteralPreferringBlock() {
+        parseFunctionLiteral(true);
+    }
+
     private void parseFunctionLiteral(boolean preferBlock) {
         assert _at(LBRACE);
 
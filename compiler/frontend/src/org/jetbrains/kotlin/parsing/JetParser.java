@@ -72,4 +72,11 @@ public class JetParser implements PsiParser {
         jetParsing.parseBlockCodeFragment();
         return psiBuilder.getTreeBuilt();
     }
+
+    @NotNull
+    public static ASTNode parseReparseableBlock(PsiBuilder psiBuilder, boolean braced) {
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseReparseableBlock(braced);
+        return psiBuilder.getTreeBuilt();
+    }
 }
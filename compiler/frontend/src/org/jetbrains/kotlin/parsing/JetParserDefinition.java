@@ -38,6 +38,7 @@ import org.jetbrains.kotlin.kdoc.parser.KDocElementType;
 import org.jetbrains.kotlin.kdoc.psi.impl.KDocLink;
 import org.jetbrains.kotlin.lexer.JetLexer;
 import org.jetbrains.kotlin.lexer.JetTokens;
+import org.jetbrains.kotlin.psi.JetBlockExpression;
 import org.jetbrains.kotlin.psi.JetFile;
 import org.jetbrains.kotlin.psi.stubs.elements.JetStubElementType;
 import org.jetbrains.kotlin.psi.stubs.elements.JetStubElementTypes;
@@ -111,6 +112,9 @@ public class JetParserDefinition implements ParserDefinition {
         else if (elementType == KDocTokens.MARKDOWN_LINK) {
             return new KDocLink(astNode);
         }
+        else if (elementType == JetNodeTypes.BLOCK) {
+            return new JetBlockExpression(astNode);
+        }
         else {
             return ((JetNodeType) elementType).createPsi(astNode);
         }
@@ -1406,6 +1406,29 @@ public class JetParsing extends AbstractJetParsing {
         block.done(BLOCK);
     }
 
+    /*
+     * Parses a block which is reparsed on its own after it was modified, the text is expected to contain nothing but the block.
+     * A braced block is parsed like the body of a control structure, so the result is a function literal if it has parameters,
+     * and is the same as the one of parseBlock() otherwise.
+     * Bodies of function literals and scripts have no braces of their own and consist of statements only.
+     */
+    void parseReparseableBlock(boolean braced) {
+        if (braced) {
+            myExpressionParsing.parseFunctionLiteralPreferringBlock();
+            return;
+        }
+
+        PsiBuilder.Marker block = mark();
+
+        myBuilder.enableNewlines();
+        myExpressionParsing.parseStatements();
+        myBuilder.restoreNewlinesState();
+
+        checkForUnexpectedSymbols();
+
+        block.done(BLOCK);
+    }
+
     /*
      * delegationSpecifier{","}
      */
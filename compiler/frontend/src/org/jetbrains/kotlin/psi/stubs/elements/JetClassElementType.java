@@ -67,8 +67,7 @@ public class JetClassElementType extends JetStubElementType<KotlinClassStub, Jet
     @Override
     public void serialize(@NotNull KotlinClassStub stub, @NotNull StubOutputStream dataStream) throws IOException {
         dataStream.writeName(stub.getName());
-        FqName fqName = stub.getFqName();
-        dataStream.writeName(fqName == null ? null : fqName.asString());
+        StubFqNameUtils.writeFqName(dataStream, stub.getFqName(), stub.getName(), stub.getParentStub());
         dataStream.writeBoolean(stub.isTrait());
         dataStream.writeBoolean(stub.isEnumEntry());
         dataStream.writeBoolean(stub.isLocal());
@@ -85,7 +84,7 @@ public class JetClassElementType extends JetStubElementType<KotlinClassStub, Jet
     @Override
     public KotlinClassStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
         StringRef name = dataStream.readName();
-        StringRef qualifiedName = dataStream.readName();
+        StringRef qualifiedName = StubFqNameUtils.readFqName(dataStream, name, parentStub);
         boolean isTrait = dataStream.readBoolean();
         boolean isEnumEntry = dataStream.readBoolean();
         boolean isLocal = dataStream.readBoolean();
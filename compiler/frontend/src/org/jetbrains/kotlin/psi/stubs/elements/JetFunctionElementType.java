@@ -56,8 +56,7 @@ public class JetFunctionElementType extends JetStubElementType<KotlinFunctionStu
         dataStream.writeName(stub.getName());
         dataStream.writeBoolean(stub.isTopLevel());
 
-        FqName fqName = stub.getFqName();
-        dataStream.writeName(fqName != null ? fqName.asString() : null);
+        StubFqNameUtils.writeFqName(dataStream, stub.getFqName(), stub.getName(), stub.getParentStub());
 
         dataStream.writeBoolean(stub.isExtension());
         dataStream.writeBoolean(stub.hasBlockBody());
@@ -72,7 +71,7 @@ public class JetFunctionElementType extends JetStubElementType<KotlinFunctionStu
         StringRef name = dataStream.readName();
         boolean isTopLevel = dataStream.readBoolean();
 
-        StringRef fqNameAsString = dataStream.readName();
+        StringRef fqNameAsString = StubFqNameUtils.readFqName(dataStream, name, parentStub);
         FqName fqName = fqNameAsString != null ? new FqName(fqNameAsString.toString()) : null;
 
         boolean isExtension = dataStream.readBoolean();
@@ -52,8 +52,7 @@ public class JetObjectElementType extends JetStubElementType<KotlinObjectStub, J
     public void serialize(@NotNull KotlinObjectStub stub, @NotNull StubOutputStream dataStream) throws IOException {
         dataStream.writeName(stub.getName());
 
-        FqName fqName = stub.getFqName();
-        dataStream.writeName(fqName != null ? fqName.toString() : null);
+        StubFqNameUtils.writeFqName(dataStream, stub.getFqName(), stub.getName(), stub.getParentStub());
 
         dataStream.writeBoolean(stub.isTopLevel());
         dataStream.writeBoolean(stub.isCompanion());
@@ -71,7 +70,7 @@ public class JetObjectElementType extends JetStubElementType<KotlinObjectStub, J
     @Override
     public KotlinObjectStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
         StringRef name = dataStream.readName();
-        StringRef fqNameStr = dataStream.readName();
+        StringRef fqNameStr = StubFqNameUtils.readFqName(dataStream, name, parentStub);
         FqName fqName = fqNameStr != null ? new FqName(fqNameStr.toString()) : null;
 
         boolean isTopLevel = dataStream.readBoolean();
@@ -48,8 +48,7 @@ public class JetParameterElementType extends JetStubElementType<KotlinParameterS
         dataStream.writeBoolean(stub.isMutable());
         dataStream.writeBoolean(stub.hasValOrVarNode());
         dataStream.writeBoolean(stub.hasDefaultValue());
-        FqName name = stub.getFqName();
-        dataStream.writeName(name != null ? name.asString() : null);
+        StubFqNameUtils.writeFqName(dataStream, stub.getFqName(), stub.getName(), stub.getParentStub());
     }
 
     @NotNull
@@ -59,7 +58,7 @@ public class JetParameterElementType extends JetStubElementType<KotlinParameterS
         boolean isMutable = dataStream.readBoolean();
         boolean hasValOrValNode = dataStream.readBoolean();
         boolean hasDefaultValue = dataStream.readBoolean();
-        StringRef fqName = dataStream.readName();
+        StringRef fqName = StubFqNameUtils.readFqName(dataStream, name, parentStub);
 
          return new KotlinParameterStubImpl(parentStub, fqName, name, isMutable, hasValOrValNode, hasDefaultValue);
     }
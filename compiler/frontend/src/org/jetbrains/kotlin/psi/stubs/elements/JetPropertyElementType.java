@@ -65,8 +65,7 @@ public class JetPropertyElementType extends JetStubElementType<KotlinPropertyStu
         dataStream.writeBoolean(stub.hasReturnTypeRef());
         dataStream.writeBoolean(stub.isProbablyNothingType());
 
-        FqName fqName = stub.getFqName();
-        dataStream.writeName(fqName != null ? fqName.asString() : null);
+        StubFqNameUtils.writeFqName(dataStream, stub.getFqName(), stub.getName(), stub.getParentStub());
     }
 
     @NotNull
@@ -82,7 +81,7 @@ public class JetPropertyElementType extends JetStubElementType<KotlinPropertyStu
         boolean hasReturnTypeRef = dataStream.readBoolean();
         boolean probablyNothing = dataStream.readBoolean();
 
-        StringRef fqNameAsString = dataStream.readName();
+        StringRef fqNameAsString = StubFqNameUtils.readFqName(dataStream, name, parentStub);
         FqName fqName = fqNameAsString != null ? new FqName(fqNameAsString.toString()) : null;
 
         return new KotlinPropertyStubImpl(parentStub, name, isVar, isTopLevel, hasDelegate,
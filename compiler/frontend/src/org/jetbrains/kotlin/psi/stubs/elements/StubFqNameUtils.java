@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.psi.stubs.elements;
+
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.util.io.StringRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.name.FqName;
+import org.jetbrains.kotlin.psi.stubs.KotlinClassOrObjectStub;
+import org.jetbrains.kotlin.psi.stubs.KotlinFileStub;
+import org.jetbrains.kotlin.psi.stubs.KotlinPlaceHolderStub;
+
+import java.io.IOException;
+
+/**
+ * Most declarations have a qualified name equal to the qualified name of the enclosing class or package plus their own name.
+ * Such names are not written to the stub: only a tag is, and the name is restored from the already deserialized parent stubs.
+ */
+final class StubFqNameUtils {
+    private static final int NO_FQ_NAME = 0;
+    private static final int CHILD_OF_CONTAINER = 1;
+    private static final int EXPLICIT_FQ_NAME = 2;
+
+    private StubFqNameUtils() {
+    }
+
+    public static void writeFqName(
+            @NotNull StubOutputStream dataStream,
+            @Nullable FqName fqName,
+            @Nullable String name,
+            @Nullable StubElement parentStub
+    ) throws IOException {
+        if (fqName == null) {
+            dataStream.writeByte(NO_FQ_NAME);
+            return;
+        }
+
+        String fqNameAsString = fqName.asString();
+        if (fqNameAsString.equals(childOfContainer(name, parentStub))) {
+            dataStream.writeByte(CHILD_OF_CONTAINER);
+        }
+        else {
+            dataStream.writeByte(EXPLICIT_FQ_NAME);
+            dataStream.writeName(fqNameAsString);
+        }
+    }
+
+    @Nullable
+    public static StringRef readFqName(
+            @NotNull StubInputStream dataStream,
+            @Nullable StringRef name,
+            @Nullable StubElement parentStub
+    ) throws IOException {
+        int tag = dataStream.readByte();
+        switch (tag) {
+            case NO_FQ_NAME:
+                return null;
+            case CHILD_OF_CONTAINER:
+                String fqName = childOfContainer(StringRef.toString(name), parentStub);
+                assert fqName != null : "Container of " + name + " has no qualified name";
+                return StringRef.fromString(fqName);
+            case EXPLICIT_FQ_NAME:
+                return dataStream.readName();
+            default:
+                throw new IOException("Unexpected qualified name tag: " + tag);
+        }
+    }
+
+    @Nullable
+    private static String childOfContainer(@Nullable String name, @Nullable StubElement parentStub) {
+        if (name == null) return null;
+
+        FqName containerFqName = getContainerFqName(parentStub);
+        if (containerFqName == null) return null;
+
+        return containerFqName.isRoot() ? name : containerFqName.asString() + "." + name;
+    }
+
+    @Nullable
+    private static FqName getContainerFqName(@Nullable StubElement stub) {
+        while (stub instanceof KotlinPlaceHolderStub) {
+            stub = stub.getParentStub();
+        }
+
+        if (stub instanceof KotlinFileStub) {
+            return ((KotlinFileStub) stub).getPackageFqName();
+        }
+        if (stub instanceof KotlinClassOrObjectStub) {
+            return ((KotlinClassOrObjectStub) stub).getFqName();
+        }
+        return null;
+    }
+}
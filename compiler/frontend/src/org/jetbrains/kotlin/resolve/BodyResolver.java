@@ -34,14 +34,21 @@ import org.jetbrains.kotlin.resolve.calls.util.CallMaker;
 import org.jetbrains.kotlin.resolve.constants.CompileTimeConstant;
 import org.jetbrains.kotlin.resolve.scopes.*;
 import org.jetbrains.kotlin.resolve.scopes.receivers.ReceiverValue;
+import org.jetbrains.kotlin.storage.LockBasedLazyResolveStorageManager;
+import org.jetbrains.kotlin.storage.StorageManager;
 import org.jetbrains.kotlin.types.*;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 import org.jetbrains.kotlin.util.Box;
 import org.jetbrains.kotlin.util.ReenteringLazyValueComputationException;
 import org.jetbrains.kotlin.util.slicedMap.WritableSlice;
+import org.jetbrains.kotlin.utils.UtilsPackage;
 
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import static org.jetbrains.kotlin.descriptors.ReceiverParameterDescriptor.NO_RECEIVER_PARAMETER;
 import static org.jetbrains.kotlin.diagnostics.Errors.*;
@@ -684,6 +691,12 @@ public class BodyResolver {
     }
 
     private void resolveFunctionBodies(@NotNull BodiesResolveContext c) {
+        Executor executor = c.getTopDownAnalysisParameters().getBodyResolveExecutor();
+        if (executor != null && !c.getTopDownAnalysisParameters().isDeclaredLocally() && c.getFunctions().size() > 1) {
+            resolveFunctionBodiesInParallel(c, executor);
+            return;
+        }
+
         for (Map.Entry<JetNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
             JetNamedFunction declaration = entry.getKey();
             SimpleFunctionDescriptor descriptor = entry.getValue();
@@ -699,6 +712,64 @@ public class BodyResolver {
         }
     }
 
+    /*
+     * Each body is resolved into its own trace. Lazy declarations are computed under the lock of the storage manager
+     * and the shared trace is only read under the same lock, so the bodies don't see each other's records.
+     * The traces are merged into the shared trace in the order of the sequential resolve, once all bodies are resolved.
+     */
+    private void resolveFunctionBodiesInParallel(@NotNull final BodiesResolveContext c, @NotNull Executor executor) {
+        StorageManager storageManager = c.getTopDownAnalysisParameters().getStorageManager();
+        final BindingContext sharedContext =
+                new LockBasedLazyResolveStorageManager(storageManager).createSafeTrace(trace).getBindingContext();
+
+        List<FutureTask<DelegatingBindingTrace>> results = new ArrayList<FutureTask<DelegatingBindingTrace>>(c.getFunctions().size());
+        for (final Map.Entry<JetNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
+            FutureTask<DelegatingBindingTrace> result = new FutureTask<DelegatingBindingTrace>(new Callable<DelegatingBindingTrace>() {
+                @Override
+                public DelegatingBindingTrace call() {
+                    JetNamedFunction declaration = entry.getKey();
+                    SimpleFunctionDescriptor descriptor = entry.getValue();
+                    DelegatingBindingTrace bodyTrace = new DelegatingBindingTrace(sharedContext, "Body of " + descriptor);
+
+                    computeDeferredType(descriptor.getReturnType());
+
+                    JetScope declaringScope = c.getDeclaringScopes().apply(declaration);
+                    assert declaringScope != null;
+
+                    resolveFunctionBody(c, bodyTrace, declaration, descriptor, declaringScope);
+                    return bodyTrace;
+                }
+            });
+            results.add(result);
+            executor.execute(result);
+        }
+
+        List<DelegatingBindingTrace> bodyTraces = new ArrayList<DelegatingBindingTrace>(results.size());
+        try {
+            for (FutureTask<DelegatingBindingTrace> result : results) {
+                // The executor is shared by the whole compilation, so bodies no worker has picked up yet are resolved here
+                result.run();
+                bodyTraces.add(result.get());
+            }
+        }
+        catch (ExecutionException e) {
+            throw UtilsPackage.rethrow(e.getCause());
+        }
+        catch (InterruptedException e) {
+            throw UtilsPackage.rethrow(e);
+        }
+        finally {
+            for (FutureTask<DelegatingBindingTrace> result : results) {
+                result.cancel(false);
+            }
+        }
+
+        // No body is being resolved now, so the shared trace is written without the lock
+        for (DelegatingBindingTrace bodyTrace : bodyTraces) {
+            bodyTrace.addAllMyDataTo(trace);
+        }
+    }
+
     public void resolveFunctionBody(
             @NotNull BodiesResolveContext c,
             @NotNull BindingTrace trace,
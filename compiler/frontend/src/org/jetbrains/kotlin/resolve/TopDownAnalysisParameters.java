@@ -19,11 +19,14 @@ package org.jetbrains.kotlin.resolve;
 import com.google.common.base.Predicate;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.context.GlobalContext;
 import org.jetbrains.kotlin.context.TypeLazinessToken;
 import org.jetbrains.kotlin.storage.ExceptionTracker;
 import org.jetbrains.kotlin.storage.StorageManager;
 
+import java.util.concurrent.Executor;
+
 /**
  * Various junk that cannot be placed into context (yet).
  */
@@ -35,9 +38,23 @@ public class TopDownAnalysisParameters extends TypeLazinessToken implements Glob
             @NotNull ExceptionTracker exceptionTracker,
             boolean analyzingBootstrapLibrary,
             boolean declaredLocally
+    ) {
+        return create(storageManager, exceptionTracker, analyzingBootstrapLibrary, declaredLocally, null);
+    }
+
+    /**
+     * @param bodyResolveExecutor if not null, function bodies of the analyzed files are resolved on it
+     */
+    @NotNull
+    public static TopDownAnalysisParameters create(
+            @NotNull StorageManager storageManager,
+            @NotNull ExceptionTracker exceptionTracker,
+            boolean analyzingBootstrapLibrary,
+            boolean declaredLocally,
+            @Nullable Executor bodyResolveExecutor
     ) {
         return new TopDownAnalysisParameters(storageManager, exceptionTracker, analyzingBootstrapLibrary,
-                                             declaredLocally, true);
+                                             declaredLocally, true, bodyResolveExecutor);
     }
 
     @NotNull
@@ -45,7 +62,7 @@ public class TopDownAnalysisParameters extends TypeLazinessToken implements Glob
             @NotNull StorageManager storageManager,
             @NotNull ExceptionTracker exceptionTracker
     ) {
-        return new TopDownAnalysisParameters(storageManager, exceptionTracker, false, true, false);
+        return new TopDownAnalysisParameters(storageManager, exceptionTracker, false, true, false, null);
     }
 
     @NotNull private final StorageManager storageManager;
@@ -53,19 +70,22 @@ public class TopDownAnalysisParameters extends TypeLazinessToken implements Glob
     private final boolean analyzingBootstrapLibrary;
     private final boolean declaredLocally;
     private final boolean lazyTopDownAnalysis;
+    @Nullable private final Executor bodyResolveExecutor;
 
     private TopDownAnalysisParameters(
             @NotNull StorageManager storageManager,
             @NotNull ExceptionTracker exceptionTracker,
             boolean analyzingBootstrapLibrary,
             boolean declaredLocally,
-            boolean lazyTopDownAnalysis
+            boolean lazyTopDownAnalysis,
+            @Nullable Executor bodyResolveExecutor
     ) {
         this.storageManager = storageManager;
         this.exceptionTracker = exceptionTracker;
         this.analyzingBootstrapLibrary = analyzingBootstrapLibrary;
         this.declaredLocally = declaredLocally;
         this.lazyTopDownAnalysis = lazyTopDownAnalysis;
+        this.bodyResolveExecutor = bodyResolveExecutor;
     }
 
     @Override
@@ -88,6 +108,11 @@ public class TopDownAnalysisParameters extends TypeLazinessToken implements Glob
         return declaredLocally;
     }
 
+    @Nullable
+    public Executor getBodyResolveExecutor() {
+        return bodyResolveExecutor;
+    }
+
     // Used temporarily while we are transitioning from eager to lazy analysis of headers in the IDE
     @Override
     @Deprecated
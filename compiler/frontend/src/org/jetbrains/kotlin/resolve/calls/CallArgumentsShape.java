@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.calls;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.descriptors.CallableDescriptor;
+import org.jetbrains.kotlin.descriptors.FunctionDescriptor;
+import org.jetbrains.kotlin.descriptors.ValueParameterDescriptor;
+import org.jetbrains.kotlin.name.Name;
+import org.jetbrains.kotlin.psi.Call;
+import org.jetbrains.kotlin.psi.JetSimpleNameExpression;
+import org.jetbrains.kotlin.psi.JetValueArgumentName;
+import org.jetbrains.kotlin.psi.ValueArgument;
+import org.jetbrains.kotlin.resolve.calls.callUtil.CallUtilPackage;
+import org.jetbrains.kotlin.types.ErrorUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Numbers and names of the arguments of a call, used to skip the candidates to which the arguments can't be mapped
+ * without running the full resolution for them.
+ *
+ * The checks repeat the errors of {@link ValueArgumentsToParametersMapper} which make a candidate fail regardless of argument types:
+ * too many positioned arguments, an unknown named argument, a parameter without a value and a function literal argument
+ * which can't be passed as the last parameter.
+ */
+public class CallArgumentsShape {
+    private final int positionedArgumentCount;
+    private final Set<Name> argumentNames = new HashSet<Name>();
+    private final boolean hasFunctionLiteralArgument;
+
+    public CallArgumentsShape(@NotNull Call call) {
+        int positioned = 0;
+        for (ValueArgument argument : CallUtilPackage.getValueArgumentsInParentheses(call)) {
+            if (argument.isNamed()) {
+                JetValueArgumentName argumentName = argument.getArgumentName();
+                JetSimpleNameExpression nameReference = argumentName != null ? argumentName.getReferenceExpression() : null;
+                // The name of incomplete code is not known, so it doesn't rule out any candidate
+                if (nameReference != null) {
+                    argumentNames.add(nameReference.getReferencedNameAsName());
+                }
+            }
+            else {
+                positioned++;
+            }
+        }
+        positionedArgumentCount = positioned;
+        hasFunctionLiteralArgument = !call.getFunctionLiteralArguments().isEmpty();
+    }
+
+    /**
+     * Returns false only for a function which certainly fails argument mapping for this call
+     */
+    public boolean isPossiblyApplicable(@NotNull CallableDescriptor candidate) {
+        if (!(candidate instanceof FunctionDescriptor) || ErrorUtils.isError(candidate)) return true;
+
+        return mapsAllArguments(candidate.getValueParameters());
+    }
+
+    private boolean mapsAllArguments(@NotNull List<ValueParameterDescriptor> parameters) {
+        int varargIndex = -1;
+        Set<Name> parameterNames = new HashSet<Name>();
+        for (ValueParameterDescriptor parameter : parameters) {
+            if (varargIndex < 0 && parameter.getVarargElementType() != null) {
+                varargIndex = parameter.getIndex();
+            }
+            parameterNames.add(parameter.getName());
+        }
+
+        if (varargIndex < 0 && positionedArgumentCount > parameters.size()) return false;
+        if (!parameterNames.containsAll(argumentNames)) return false;
+
+        int lastIndex = parameters.size() - 1;
+        if (hasFunctionLiteralArgument) {
+            if (parameters.isEmpty()) return false;
+            ValueParameterDescriptor last = parameters.get(lastIndex);
+            if (last.getVarargElementType() != null || isPositioned(lastIndex, varargIndex)) return false;
+        }
+
+        for (ValueParameterDescriptor parameter : parameters) {
+            int index = parameter.getIndex();
+            if (parameter.hasDefaultValue() || parameter.getVarargElementType() != null) continue;
+            if (isPositioned(index, varargIndex) || argumentNames.contains(parameter.getName())) continue;
+            if (hasFunctionLiteralArgument && index == lastIndex) continue;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isPositioned(int parameterIndex, int varargIndex) {
+        // All positioned arguments after a vararg parameter are passed to it
+        return parameterIndex < positionedArgumentCount && (varargIndex < 0 || parameterIndex <= varargIndex);
+    }
+}
@@ -34,6 +34,7 @@ import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
 import org.jetbrains.kotlin.resolve.calls.results.OverloadResolutionResults;
 import org.jetbrains.kotlin.resolve.calls.results.OverloadResolutionResultsImpl;
 import org.jetbrains.kotlin.resolve.calls.results.ResolutionResultsHandler;
+import org.jetbrains.kotlin.resolve.calls.results.ResolutionStatus;
 import org.jetbrains.kotlin.resolve.calls.smartcasts.DataFlowInfo;
 import org.jetbrains.kotlin.resolve.calls.tasks.*;
 import org.jetbrains.kotlin.resolve.calls.tasks.collectors.CallableDescriptorCollectors;
@@ -586,27 +587,32 @@ public class CallResolver {
             @NotNull ResolutionTask<D, F> task,
             @NotNull CallTransformer<D, F> callTransformer
     ) {
+        // Candidates to which the arguments can't be mapped are resolved only if no other candidate is applicable,
+        // because then they take part in reporting errors
+        CallArgumentsShape argumentsShape = task.checkArguments == CheckValueArgumentsMode.ENABLED && !task.collectAllCandidates
+                                            ? new CallArgumentsShape(task.call) : null;
+
+        List<ResolutionCandidate<D>> candidates = Lists.newArrayList(task.getCandidates());
+        List<Collection<MutableResolvedCall<F>>> resolvedCallsByCandidate = Lists.newArrayListWithCapacity(candidates.size());
+        boolean hasApplicableCandidates = false;
+        for (ResolutionCandidate<D> resolutionCandidate : candidates) {
+            if (argumentsShape != null && !argumentsShape.isPossiblyApplicable(resolutionCandidate.getDescriptor())) {
+                resolvedCallsByCandidate.add(null);
+                continue;
+            }
+            Collection<MutableResolvedCall<F>> resolvedCalls = resolveCandidate(resolutionCandidate, task, callTransformer);
+            resolvedCallsByCandidate.add(resolvedCalls);
+            hasApplicableCandidates |= hasApplicableCall(resolvedCalls);
+        }
 
-        for (ResolutionCandidate<D> resolutionCandidate : task.getCandidates()) {
-            TemporaryBindingTrace candidateTrace = TemporaryBindingTrace.create(
-                    task.trace, "trace to resolve candidate");
-            Collection<CallCandidateResolutionContext<D>> contexts = callTransformer.createCallContexts(resolutionCandidate, task, candidateTrace);
-            for (CallCandidateResolutionContext<D> context : contexts) {
-
-                candidateResolver.performResolutionForCandidateCall(context, task);
-
-                /* important for 'variable as function case': temporary bind reference to descriptor (will be rewritten)
-                to have a binding to variable while 'invoke' call resolve */
-                task.tracing.bindReference(context.candidateCall.getTrace(), context.candidateCall);
-
-                Collection<MutableResolvedCall<F>> resolvedCalls = callTransformer.transformCall(context, this, task);
-
-                for (MutableResolvedCall<F> resolvedCall : resolvedCalls) {
-                    BindingTrace trace = resolvedCall.getTrace();
-                    task.tracing.bindReference(trace, resolvedCall);
-                    task.tracing.bindResolvedCall(trace, resolvedCall);
-                    task.addResolvedCall(resolvedCall);
-                }
+        for (int i = 0; i < candidates.size(); i++) {
+            Collection<MutableResolvedCall<F>> resolvedCalls = resolvedCallsByCandidate.get(i);
+            if (resolvedCalls == null) {
+                if (hasApplicableCandidates) continue;
+                resolvedCalls = resolveCandidate(candidates.get(i), task, callTransformer);
+            }
+            for (MutableResolvedCall<F> resolvedCall : resolvedCalls) {
+                task.addResolvedCall(resolvedCall);
             }
         }
 
@@ -617,4 +623,42 @@ public class CallResolver {
         }
         return results;
     }
+
+    @NotNull
+    private <D extends CallableDescriptor, F extends D> Collection<MutableResolvedCall<F>> resolveCandidate(
+            @NotNull ResolutionCandidate<D> resolutionCandidate,
+            @NotNull ResolutionTask<D, F> task,
+            @NotNull CallTransformer<D, F> callTransformer
+    ) {
+        Collection<MutableResolvedCall<F>> result = Lists.newArrayList();
+        TemporaryBindingTrace candidateTrace = TemporaryBindingTrace.create(
+                task.trace, "trace to resolve candidate");
+        Collection<CallCandidateResolutionContext<D>> contexts = callTransformer.createCallContexts(resolutionCandidate, task, candidateTrace);
+        for (CallCandidateResolutionContext<D> context : contexts) {
+
+            candidateResolver.performResolutionForCandidateCall(context, task);
+
+            /* important for 'variable as function case': temporary bind reference to descriptor (will be rewritten)
+            to have a binding to variable while 'invoke' call resolve */
+            task.tracing.bindReference(context.candidateCall.getTrace(), context.candidateCall);
+
+            Collection<MutableResolvedCall<F>> resolvedCalls = callTransformer.transformCall(context, this, task);
+
+            for (MutableResolvedCall<F> resolvedCall : resolvedCalls) {
+                BindingTrace trace = resolvedCall.getTrace();
+                task.tracing.bindReference(trace, resolvedCall);
+                task.tracing.bindResolvedCall(trace, resolvedCall);
+                result.add(resolvedCall);
+            }
+        }
+        return result;
+    }
+
+    private static <F extends CallableDescriptor> boolean hasApplicableCall(@NotNull Collection<MutableResolvedCall<F>> resolvedCalls) {
+        for (MutableResolvedCall<F> resolvedCall : resolvedCalls) {
+            ResolutionStatus status = resolvedCall.getStatus();
+            if (status.isSuccess() || status == ResolutionStatus.INCOMPLETE_TYPE_INFERENCE) return true;
+        }
+        return false;
+    }
 }
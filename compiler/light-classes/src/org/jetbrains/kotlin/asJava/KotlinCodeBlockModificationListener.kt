@@ -25,6 +25,7 @@ import com.intellij.psi.impl.PsiTreeChangePreprocessor
 import com.intellij.psi.util.PsiModificationTracker
 import org.jetbrains.kotlin.psi.*
 import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.messages.Topic
 
 /**
  * Tested in OutOfBlockModificationTestGenerated
@@ -33,7 +34,7 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
     private val myModificationTracker = modificationTracker as PsiModificationTrackerImpl
 
     override fun treeChanged(event: PsiTreeChangeEventImpl) {
-        if (event.getFile() !is JetFile) return
+        val file = event.getFile() as? JetFile ?: return
 
         when (event.getCode()) {
             BEFORE_CHILDREN_CHANGE,
@@ -48,29 +49,29 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
             CHILD_ADDED,
             CHILD_REMOVED,
             CHILD_REPLACED -> {
-                processChange(event.getParent(), event.getOldChild(), event.getChild())
+                processChange(file, event.getParent(), event.getOldChild(), event.getChild())
             }
 
             CHILDREN_CHANGED -> {
                 if (!event.isGenericChange()) {
-                    processChange(event.getParent(), event.getParent(), null)
+                    processChange(file, event.getParent(), event.getParent(), null)
                 }
             }
 
             CHILD_MOVED,
             PROPERTY_CHANGED -> {
-                myModificationTracker.incCounter()
+                incOutOfBlockModificationCount(file)
             }
 
             else -> LOG.error("Unknown code:" + event.getCode())
         }
     }
 
-    private fun processChange(parent: PsiElement?, child1: PsiElement?, child2: PsiElement?) {
+    private fun processChange(file: JetFile, parent: PsiElement?, child1: PsiElement?, child2: PsiElement?) {
         try {
             if (!isInsideCodeBlock(parent)) {
                 if (parent != null && parent.getContainingFile() is JetFile) {
-                    myModificationTracker.incCounter()
+                    incOutOfBlockModificationCount(file)
                 }
                 else {
                     myModificationTracker.incOutOfCodeBlockModificationCounter()
@@ -79,17 +80,28 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
             }
 
             if (containsClassesInside(child1) || (child2 != child1 && containsClassesInside(child2))) {
-                myModificationTracker.incCounter()
+                incOutOfBlockModificationCount(file)
             }
         }
         catch (e: PsiInvalidElementAccessException) {
-            myModificationTracker.incCounter() // Shall not happen actually, just a pre-release paranoia
+            incOutOfBlockModificationCount(file) // Shall not happen actually, just a pre-release paranoia
         }
     }
 
+    private fun incOutOfBlockModificationCount(file: JetFile) {
+        myModificationTracker.incCounter()
+        file.getProject().getMessageBus().syncPublisher(OUT_OF_BLOCK_MODIFICATION).outOfBlockModification(file)
+    }
+
     companion object {
         private val LOG = Logger.getInstance("#org.jetbrains.kotlin.asJava.JetCodeBlockModificationListener")
 
+        /**
+         * Notified after each out of code block modification of a Kotlin file caused by a change in this file
+         */
+        public val OUT_OF_BLOCK_MODIFICATION: Topic<OutOfBlockModificationListener> =
+                Topic.create("Kotlin out of code block modification", javaClass<OutOfBlockModificationListener>())
+
         private fun containsClassesInside(element: PsiElement?): Boolean {
             if (element == null) return false
             if (element is PsiClass) return true
@@ -140,3 +152,7 @@ public class KotlinCodeBlockModificationListener(modificationTracker: PsiModific
         private fun PsiElement?.isAncestorOf(element: PsiElement) = PsiTreeUtil.isAncestor(this, element, false)
     }
 }
+
+public trait OutOfBlockModificationListener {
+    public fun outOfBlockModification(file: JetFile)
+}
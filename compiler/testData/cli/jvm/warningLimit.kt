@@ -0,0 +1,2 @@
+fun foo(a: Int, b: Int, c: Int) {
+}
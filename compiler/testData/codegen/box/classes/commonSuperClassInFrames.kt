@@ -0,0 +1,20 @@
+open class Base(val result: String)
+
+class A : Base("O")
+
+class B : Base("K")
+
+class C : Exception("fail")
+
+fun choose(flag: Boolean): String {
+    // The branches are merged to Base in the stack map frame
+    val base = if (flag) A() else B()
+    return base.result
+}
+
+fun throwable(flag: Boolean): Throwable = if (flag) C() else IllegalStateException()
+
+fun box(): String {
+    if (throwable(true) !is C || throwable(false) !is IllegalStateException) return "fail"
+    return choose(true) + choose(false)
+}
@@ -0,0 +1,22 @@
+class A {
+    override fun toString() = "A"
+}
+
+fun log(user: String, id: Int, tag: String?) = "user=" + user + "${", id=" + id}\n" + "tag=$tag" + '!'
+
+fun nested(a: String, b: String?) = "<${"[$a]"}${a + "," + b}>" + ("" + "") + (a + 'c') + A() + 1L + 2.0
+
+fun box(): String {
+    val log = log("u", 42, null)
+    if (log != "user=u, id=42\ntag=null!") return "Fail 1: $log"
+
+    val nested = nested("x", null)
+    if (nested != "<[x]x,null>xcA12.0") return "Fail 2: $nested"
+
+    val x: Any? = null
+    if ("${"$x"}" != "null") return "Fail 3"
+    if ("" + 'a' + 'b' != "ab") return "Fail 4"
+    if ("${'a'}${1}" != "a1") return "Fail 5"
+
+    return "OK"
+}
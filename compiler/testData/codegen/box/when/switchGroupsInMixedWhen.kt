@@ -0,0 +1,45 @@
+enum class Color { RED, GREEN, BLUE, BLACK }
+
+fun charKind(c: Char, other: Char): String = when (c) {
+    in 'a'..'z', in 'A'..'Z', '_' -> "letter"
+    other -> "other"
+    'x', in '0'..'9', '+' -> "digit"
+    else -> "unknown"
+}
+
+fun command(s: String?, custom: String): Int = when (s) {
+    "get", "put", "delete" -> 1
+    custom -> 2
+    "head", "options", "put", "trace" -> 3
+    null -> 4
+    else -> 0
+}
+
+fun colorName(c: Color?, favorite: Color): String = when (c) {
+    favorite -> "favorite"
+    Color.RED, Color.GREEN, Color.BLUE -> "primary"
+    else -> "other"
+}
+
+fun box(): String {
+    if (charKind('q', '1') != "letter") return "Fail 1"
+    if (charKind('_', '_') != "letter") return "Fail 2"
+    if (charKind('1', '1') != "other") return "Fail 3"
+    if (charKind('2', '1') != "digit") return "Fail 4"
+    if (charKind('x', 'x') != "letter") return "Fail 5"
+    if (charKind('+', '1') != "digit") return "Fail 6"
+    if (charKind('!', '1') != "unknown") return "Fail 7"
+
+    if (command("put", "put") != 1) return "Fail 8"
+    if (command("trace", "trace") != 2) return "Fail 9"
+    if (command("head", "x") != 3) return "Fail 10"
+    if (command(null, "x") != 4) return "Fail 11"
+    if (command("Aa", "x") != 0 || command("BB", "BB") != 2) return "Fail 12"
+
+    if (colorName(Color.RED, Color.RED) != "favorite") return "Fail 13"
+    if (colorName(Color.RED, Color.BLACK) != "primary") return "Fail 14"
+    if (colorName(Color.BLACK, Color.RED) != "other") return "Fail 15"
+    if (colorName(null, Color.RED) != "other") return "Fail 16"
+
+    return "OK"
+}
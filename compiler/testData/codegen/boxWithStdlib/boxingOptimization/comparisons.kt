@@ -0,0 +1,36 @@
+import kotlin.test.assertEquals
+
+inline fun <T : Comparable<T>> compare(a: T, b: T) = a.compareTo(b)
+
+inline fun <T> Iterator<T>.each(f: (T) -> Unit) {
+    while (hasNext()) f(next())
+}
+
+fun nullCheck(): Int {
+    var x: Int? = 1
+    run { x = 2 }
+    return if (x != null) x!! + 1 else 0
+}
+
+fun box(): String {
+    val list = listOf("a", "abc", "ab")
+    assertEquals("abc", list.maxBy { it.length() })
+    assertEquals("a", list.minBy { it.length().toLong() })
+    assertEquals("ab", list.minBy { Math.abs(it.length() - 2.1) })
+    assertEquals("a", list.maxBy { it[0] + it.length() % 2 })
+
+    assertEquals(-1, compare(1, 2))
+    assertEquals(1, compare(3L, 2L))
+    assertEquals(0, compare(1.0, 1.0))
+    assertEquals(1, compare(0.0, -0.0))
+    assertEquals(-2, compare('a', 'c'))
+    assertEquals(3, compare(4.toByte(), 1.toByte()))
+
+    var sum = 0
+    intArray(1, 2, 3).iterator().each { sum += it }
+    assertEquals(6, sum)
+
+    assertEquals(3, nullCheck())
+
+    return "OK"
+}
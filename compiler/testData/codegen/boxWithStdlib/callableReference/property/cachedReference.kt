@@ -0,0 +1,20 @@
+class A(var x: Int)
+
+val top = "OK"
+
+fun memberRef() = A::x
+
+fun topLevelRef() = ::top
+
+fun box(): String {
+    if (memberRef() !== memberRef()) return "Fail: member property reference is not cached"
+    if (topLevelRef() !== topLevelRef()) return "Fail: top level property reference is not cached"
+
+    val a = A(1)
+    for (i in 1..3) {
+        memberRef().set(a, memberRef().get(a) + i)
+    }
+    if (a.x != 7) return "Fail: ${a.x}"
+
+    return topLevelRef().get()
+}
@@ -0,0 +1,52 @@
+inline fun twice(f: () -> Unit) {
+    f()
+    f()
+}
+
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun counters(): String {
+    var count = 0L
+    var flag = false
+    var text = "a"
+    var char = 'a'
+    twice {
+        count++
+        flag = !flag
+        text += "b"
+        char++
+    }
+    return "$count $flag $text $char"
+}
+
+fun loop(): Int {
+    var result = 0
+    for (i in 1..3) {
+        var local = i
+        twice { local *= 2 }
+        result += local
+    }
+    return result
+}
+
+fun escaping(): () -> Int {
+    var x = 0
+    twice { x++ }
+    return { ++x }
+}
+
+fun box(): String {
+    if (sum(listOf(1, 2, 3)) != 6) return "Fail sum: ${sum(listOf(1, 2, 3))}"
+    if (counters() != "2 false abb c") return "Fail counters: ${counters()}"
+    if (loop() != 24) return "Fail loop: ${loop()}"
+
+    val f = escaping()
+    f()
+    if (f() != 4) return "Fail escaping"
+
+    return "OK"
+}
@@ -0,0 +1,34 @@
+import kotlin.reflect.jvm.internal.pcollections.HashPMap
+import kotlin.test.*
+
+class Key(val hash: Int, val id: Int) {
+    override fun hashCode() = hash
+    override fun equals(other: Any?) = other is Key && other.id == id
+}
+
+fun box(): String {
+    var map = HashPMap.empty<Key, Any>()!!
+
+    for (id in 1..100) {
+        map = map.plus(Key(id % 3, id), id)!!
+    }
+
+    assertEquals(100, map.size())
+    for (id in 1..100) {
+        assertEquals(id, map[Key(id % 3, id)])
+    }
+    assertFalse(map.containsKey(Key(1, 0)))
+
+    for (id in 1..100) {
+        if (id % 2 == 0) {
+            map = map.minus(Key(id % 3, id))!!
+        }
+    }
+
+    assertEquals(50, map.size())
+    for (id in 1..100) {
+        assertEquals(id % 2 != 0, map.containsKey(Key(id % 3, id)), "Incorrect presence of $id")
+    }
+
+    return "OK"
+}
@@ -0,0 +1,41 @@
+fun box(): String {
+    val list = listOf("a", "b", "c")
+    val array = array("x", "y")
+
+    val indices = arrayListOf<Int>()
+    for (i in list.indices) indices.add(i)
+    for (i in array.indices) indices.add(i)
+    for (i in "ab".indices) indices.add(i)
+    for (i in 3.indices) indices.add(i)
+    for (i in listOf<String>().indices) indices.add(i)
+    if (indices != listOf(0, 1, 2, 0, 1, 0, 1, 0, 1, 2)) return "Wrong indices: $indices"
+
+    val pairs = arrayListOf<String>()
+    for ((i, s) in list.withIndex()) {
+        if (i == 1) continue
+        pairs.add("$i$s")
+    }
+    for ((i, s) in array.withIndex()) pairs.add("$i$s")
+    for ((i) in list.withIndex()) pairs.add("$i")
+    if (pairs != listOf("0a", "2c", "0x", "1y", "0", "1", "2")) return "Wrong pairs: $pairs"
+
+    val squares = arrayListOf<Int>()
+    for ((i, n) in listOf(1, 2, 3).withIndex()) squares.add(i * n)
+    if (squares != listOf(0, 2, 6)) return "Wrong products: $squares"
+
+    val values = arrayListOf<Int>()
+    for (i in 5 downTo 1 step 2) values.add(i)
+    for (i in 1..5 step 3) values.add(i)
+    for (i in Int.MIN_VALUE + 1 downTo Int.MIN_VALUE) values.add(i)
+    if (values != listOf(5, 3, 1, 1, 4, Int.MIN_VALUE + 1, Int.MIN_VALUE)) return "Wrong progression: $values"
+
+    try {
+        for (i in 1..5 step 0) return "Fail: loop with zero step"
+        return "Fail: no exception for zero step"
+    }
+    catch (e: IllegalArgumentException) {
+        if (e.getMessage() != "Step must be positive, was: 0") return "Wrong message: ${e.getMessage()}"
+    }
+
+    return "OK"
+}
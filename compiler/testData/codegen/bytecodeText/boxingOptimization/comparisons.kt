@@ -0,0 +1,13 @@
+fun longest(list: List<String>) = list.maxBy { it.length() }
+
+fun shortest(list: List<String>) = list.minBy { it.length().toLong() }
+
+fun nearest(list: List<String>, x: Double) = list.minBy { Math.abs(it.length() - x) }
+
+inline fun <T : Comparable<T>> max(a: T, b: T) = if (a < b) b else a
+
+fun maxInt(x: Int, y: Int) = max(x + 1, y + 1) - 1
+
+// 0 valueOf
+// 0 Value\s\(\)
+// 0 compareTo
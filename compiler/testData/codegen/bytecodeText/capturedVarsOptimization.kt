@@ -0,0 +1,24 @@
+inline fun run2(f: () -> Unit) = f()
+
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun count(): Int {
+    var count = 0L
+    run2 { count++ }
+    var s = "a"
+    run2 { s += "b" }
+    return (count + s.length()).toInt()
+}
+
+fun escaping(): () -> Int {
+    var x = 0
+    return { ++x }
+}
+
+// 1 NEW kotlin/jvm/internal/Ref\$IntRef
+// 0 NEW kotlin/jvm/internal/Ref\$LongRef
+// 0 NEW kotlin/jvm/internal/Ref\$ObjectRef
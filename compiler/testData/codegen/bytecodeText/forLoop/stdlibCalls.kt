@@ -0,0 +1,21 @@
+fun f(list: List<String>, array: Array<String>, s: String, n: Int) {
+    for (i in list.indices) {
+    }
+    for (i in array.indices) {
+    }
+    for (i in s.indices) {
+    }
+    for ((i, x) in list.withIndex()) {
+    }
+    for ((i, x) in array.withIndex()) {
+    }
+    for (i in n downTo 0 step 2) {
+    }
+}
+
+// 0 getIndices
+// 0 withIndex
+// 0 IndexedValue
+// 0 IntProgression
+// 0 getStart
+// 0 getEnd
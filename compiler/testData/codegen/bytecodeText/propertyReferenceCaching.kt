@@ -0,0 +1,19 @@
+class A(val x: Int)
+
+val top = 1
+
+fun test(list: List<A>): Int {
+    var sum = 0
+    for (a in list) {
+        sum += A::x.get(a) + ::top.get()
+    }
+    return sum
+}
+
+// Inline function bodies are copied to other classes and can't use the fields of this one
+inline fun inlineTest(): Int = ::top.get()
+
+// 1 INVOKESTATIC kotlin/jvm/internal/Reflection\.memberProperty
+// 2 INVOKESTATIC kotlin/jvm/internal/Reflection\.topLevelVariable
+// 2 PUTSTATIC .*\$propertyReference\$
+// 2 static volatile synthetic .* \$propertyReference\$
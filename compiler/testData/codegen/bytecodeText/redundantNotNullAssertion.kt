@@ -0,0 +1,7 @@
+inline fun twice(s: String) = s + s
+
+fun constant() = twice("abc")
+
+fun parameter(s: String) = twice(s)
+
+// 3 checkParameterIsNotNull
@@ -0,0 +1,6 @@
+fun foo() {}
+
+fun test() = Thread(::foo)
+
+// 0 \$sam\$Runnable
+// 1 GETSTATIC .*\$test\$1\.INSTANCE\$
@@ -0,0 +1,10 @@
+fun log(user: String, id: Int, tag: String?) = "user=" + user + "${", id=" + id}\n" + "tag=$tag" + '!'
+
+fun single(x: Any?) = "${"$x"}"
+
+fun nested(a: String, b: String) = "<${"[$a]"}${a + "," + b}>"
+
+// 2 NEW java/lang/StringBuilder
+// 2 INVOKESPECIAL java/lang/StringBuilder.<init> \(I\)V
+// 14 INVOKEVIRTUAL java/lang/StringBuilder.append
+// 1 INVOKESTATIC java/lang/String.valueOf
@@ -0,0 +1,26 @@
+enum class Color { RED, GREEN, BLUE, BLACK }
+
+fun charKind(c: Char, other: Char): String = when (c) {
+    in 'a'..'z', in 'A'..'Z', '_' -> "letter"
+    other -> "other"
+    in '0'..'9' -> "digit"
+    else -> "unknown"
+}
+
+fun command(s: String?, custom: String): Int = when (s) {
+    "get", "put", "delete" -> 1
+    custom -> 2
+    "head", "options", "trace" -> 3
+    else -> 0
+}
+
+fun colorName(c: Color?, favorite: Color): String = when (c) {
+    favorite -> "favorite"
+    Color.RED, Color.GREEN, Color.BLUE -> "primary"
+    else -> "other"
+}
+
+// 2 TABLESWITCH
+// 2 LOOKUPSWITCH
+// 6 INVOKEVIRTUAL java/lang/String.equals
+// 2 INVOKEVIRTUAL java/lang/String.hashCode
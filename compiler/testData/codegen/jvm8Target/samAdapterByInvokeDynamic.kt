@@ -0,0 +1,22 @@
+import java.util.ArrayList
+import java.util.Collections
+
+fun box(): String {
+    val list = ArrayList<String>()
+    list.add("K")
+    list.add("O")
+
+    val reversed: (String, String) -> Int = { a, b -> b.compareTo(a) }
+    Collections.sort(list, reversed)
+
+    var result = ""
+    val append: () -> Unit = { result = list[0] + list[1] }
+    Thread(append).run()
+
+    return result
+}
+
+// 2 INVOKEDYNAMIC
+// 2 java/lang/invoke/LambdaMetafactory\.metafactory
+// 0 \$sam\$
+// 0 class version 50\.0
@@ -0,0 +1,28 @@
+import java.util.ArrayList
+import java.util.Collections
+
+inline fun sortDescending(list: MutableList<String>) {
+    val descending: (String, String) -> Int = { a, b -> b.compareTo(a) }
+    Collections.sort(list, descending)
+}
+
+inline fun <T> call(f: () -> T): T = f()
+
+fun box(): String {
+    val list = ArrayList<String>()
+    list.add("K")
+    list.add("O")
+    sortDescending(list)
+
+    var result = ""
+    call {
+        val append: () -> Unit = { result = list[0] + list[1] }
+        Thread(append).run()
+    }
+
+    return result
+}
+
+// The code is copied on inlining into classes which may target an older JVM
+// 0 INVOKEDYNAMIC
+// 0 class version 50\.0
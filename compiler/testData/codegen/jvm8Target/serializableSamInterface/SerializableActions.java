@@ -0,0 +1,11 @@
+import java.io.Serializable;
+
+public class SerializableActions {
+    public interface Action extends Serializable {
+        String run();
+    }
+
+    public static String run(Action action) {
+        return action.run();
+    }
+}
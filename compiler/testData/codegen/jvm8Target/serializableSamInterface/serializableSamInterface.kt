@@ -0,0 +1,8 @@
+fun box(): String {
+    val ok: () -> String = { "OK" }
+    return SerializableActions.run(ok)
+}
+
+// Objects created by LambdaMetafactory.metafactory can't be serialized, so the function is wrapped in a class
+// 0 INVOKEDYNAMIC
+// 1 NEW .*\$sam\$
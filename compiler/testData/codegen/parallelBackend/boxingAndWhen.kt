@@ -0,0 +1,22 @@
+fun describe(x: Any?): String = when (x) {
+    null -> "null"
+    1, 2 -> "small"
+    is Int -> if (x > 100) "big" else "medium"
+    is String -> x
+    else -> "other"
+}
+
+fun sum(values: Array<Int?>): Int {
+    var result = 0
+    for (value in values) {
+        val boxed: Int? = value
+        if (boxed != null) result += boxed
+    }
+    return result
+}
+
+fun box(): String {
+    if (describe(null) != "null" || describe(2) != "small" || describe(50) != "medium" || describe(500) != "big") return "fail 1"
+    if (describe("OK") != "OK" || describe(1.0) != "other") return "fail 2"
+    return if (sum(arrayOf(1, null, 2)) == 3) "OK" else "fail 3"
+}
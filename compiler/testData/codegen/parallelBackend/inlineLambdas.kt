@@ -0,0 +1,22 @@
+inline fun <T> run(f: () -> T): T = f()
+
+inline fun repeat(times: Int, f: (Int) -> Unit) {
+    for (i in 0..times - 1) f(i)
+}
+
+class Counter {
+    private var count = 0
+
+    fun countTo(n: Int): Int {
+        repeat(n) { count++ }
+        return run { count }
+    }
+}
+
+fun box(): String {
+    var sum = 0
+    repeat(5) { sum += it }
+    val counter = Counter()
+    val lazySum = { run { sum } }
+    return if (sum == 10 && counter.countTo(3) == 3 && lazySum() == 10) "OK" else "fail"
+}
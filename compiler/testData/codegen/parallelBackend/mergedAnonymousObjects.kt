@@ -0,0 +1,32 @@
+abstract class Base {
+    abstract fun name(): String
+
+    fun describe() = "<" + name() + ">"
+}
+
+inline fun named(name: String, f: () -> String): Base = object : Base() {
+    override fun name() = name + f()
+}
+
+fun choose(first: Boolean): String {
+    val base = if (first) object : Base() {
+        override fun name() = "first"
+    }
+    else object : Base() {
+        override fun name() = "second"
+    }
+    return base.describe()
+}
+
+fun chooseInlined(first: Boolean): String {
+    val base = if (first) named("inlined") { "1" } else named("inlined") { "2" }
+    return base.describe()
+}
+
+fun box(): String {
+    if (choose(true) != "<first>") return "fail 1"
+    if (choose(false) != "<second>") return "fail 2"
+    if (chooseInlined(true) != "<inlined1>") return "fail 3"
+    if (chooseInlined(false) != "<inlined2>") return "fail 4"
+    return "OK"
+}
@@ -0,0 +1,24 @@
+inline fun <T> call(f: () -> T): T = f()
+
+class A {
+    private var r = 1
+
+    private fun inc(): Int = ++r
+
+    fun test(): Int = call { inc(); r }
+}
+
+class B {
+    private val s = "K"
+
+    fun test(): () -> String = { s }
+}
+
+fun box(): String {
+    if (A().test() != 2) return "fail"
+    return "O" + B().test()()
+}
+
+// 0 synthetic access\$inc
+// 0 synthetic access\$getR
+// 1 synthetic access\$getS
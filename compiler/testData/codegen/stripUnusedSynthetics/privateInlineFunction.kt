@@ -0,0 +1,5 @@
+private inline fun twice(x: Int): Int = x * 2
+
+fun box(): String = if (twice(2) == 4) "OK" else "fail"
+
+// 0 twice\(I\)I
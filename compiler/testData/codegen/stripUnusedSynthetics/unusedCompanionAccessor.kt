@@ -0,0 +1,11 @@
+class A {
+    companion object {
+        private var r: Int = 1
+    }
+
+    fun test() = 1
+}
+
+fun box(): String = if (A().test() == 1) "OK" else "fail"
+
+// 0 synthetic access\$getR
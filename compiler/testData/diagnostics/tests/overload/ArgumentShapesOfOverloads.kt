@@ -0,0 +1,14 @@
+fun foo(<!UNUSED_PARAMETER!>a<!>: Int) {}
+fun foo(<!UNUSED_PARAMETER!>a<!>: Int, <!UNUSED_PARAMETER!>b<!>: Int) {}
+fun foo(<!UNUSED_PARAMETER!>a<!>: Int, <!UNUSED_PARAMETER!>f<!>: () -> Unit) {}
+fun foo(vararg <!UNUSED_PARAMETER!>s<!>: String) {}
+
+fun test() {
+    foo()
+    foo(1)
+    foo(1, 2)
+    foo(1) {}
+    foo(b = 2, a = 1)
+    foo("a", "b", "c")
+    <!NONE_APPLICABLE!>foo<!>(1, 2, 3)
+}
@@ -0,0 +1,53 @@
+package test
+
+open class Shape(val name: String) {
+    open fun area(): Double = 0.0
+}
+
+class Square(val side: Double) : Shape("square") {
+    override fun area() = side * side
+
+    fun scaled(factor: Int) = Square(side * factor)
+}
+
+fun inferredFromOther() = inferred() + 1
+
+fun inferred() = 42
+
+fun smartCast(shape: Shape?): Double {
+    if (shape is Square) return shape.side
+    return shape.area()
+}
+
+fun unresolved(): Int {
+    val unused = 1
+    return missing(2)
+}
+
+fun typeMismatch(): String = Square(1.0).scaled("2").name
+
+fun lambdas(shapes: List<Shape>): Double {
+    var total = 0
+    shapes.forEach { total += it.area() }
+    return shapes.fold(0.0) { sum, shape -> sum + shape.area() }
+}
+
+fun nullability(s: String?) = s.length + inferredFromOther()
+
+fun unreachable(): Int {
+    return 1
+    val x = 2
+}
+
+fun overloads(x: Any) = overloaded(x)
+
+fun overloaded(x: Int) = x
+fun overloaded(x: String) = x
+
+fun local(): Int {
+    fun nested(): Int = unknown
+    class Local {
+        fun value(): String = 1
+    }
+    return nested() + Local().value()
+}
@@ -8377,6 +8377,12 @@ public class JetDiagnosticsTestGenerated extends AbstractJetDiagnosticsTest {
                 JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/overload"), Pattern.compile("^(.+)\\.kt$"), true);
             }
 
+            @TestMetadata("ArgumentShapesOfOverloads.kt")
+            public void testArgumentShapesOfOverloads() throws Exception {
+                String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ArgumentShapesOfOverloads.kt");
+                doTest(fileName);
+            }
+
             @TestMetadata("ConflictingOverloadsFunsDifferentReturnInClass.kt")
             public void testConflictingOverloadsFunsDifferentReturnInClass() throws Exception {
                 String fileName = JetTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/overload/ConflictingOverloadsFunsDifferentReturnInClass.kt");
@@ -73,6 +73,11 @@ public class CliCommonTest extends CliBaseTest {
         executeCompilerCompareOutputJS();
     }
 
+    @Test
+    public void warningLimit() throws Exception {
+        executeCompilerCompareOutputJVM();
+    }
+
     @Test
     public void pluginSimple() throws Exception {
         executeCompilerCompareOutputJVM();
@@ -68,7 +68,10 @@ public class CodegenTestUtil {
                 null,
                 null,
                 forExtraDiagnostics,
-                null
+                null,
+                configuration.get(JVMConfigurationKeys.JVM_8_TARGET, false),
+                configuration.get(JVMConfigurationKeys.STRIP_UNUSED_SYNTHETICS, false),
+                configuration.get(JVMConfigurationKeys.PARALLEL_BACKEND, false)
         );
         KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen;
+
+import com.intellij.openapi.util.SystemInfo;
+import kotlin.KotlinPackage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.backend.common.output.OutputFile;
+import org.jetbrains.kotlin.cli.jvm.JVMConfigurationKeys;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.test.ConfigurationKind;
+import org.jetbrains.kotlin.test.JetTestUtils;
+import org.jetbrains.kotlin.test.TestJdkKind;
+
+import java.io.File;
+import java.io.FilenameFilter;
+
+public class Jvm8TargetTest extends AbstractBytecodeTextTest {
+    private static final int JVM_8_CLASS_FILE_VERSION = 52;
+
+    @NotNull
+    @Override
+    protected String getPrefix() {
+        return "jvm8Target";
+    }
+
+    @Override
+    public void doTest(@NotNull String filename) throws Exception {
+        myEnvironment = JetCoreEnvironment.createForTests(getTestRootDisposable(), createConfiguration(), EnvironmentConfigFiles.JVM_CONFIG_FILES);
+        checkGeneratedClasses(filename);
+    }
+
+    // The directory contains a Java source and a Kotlin file named after the test
+    private void doTestWithJava(@NotNull String directory) throws Exception {
+        File javaSource = KotlinPackage.single(new File(directory).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(@NotNull File dir, @NotNull String name) {
+                return name.endsWith(".java");
+            }
+        }));
+
+        CompilerConfiguration configuration = createConfiguration();
+        configuration.add(JVMConfigurationKeys.CLASSPATH_KEY, new File(directory));
+        myEnvironment = JetCoreEnvironment.createForTests(getTestRootDisposable(), configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+        configuration.add(JVMConfigurationKeys.CLASSPATH_KEY, CodegenTestUtil.compileJava(relativePath(javaSource)));
+
+        checkGeneratedClasses(directory + "/" + getTestName(true) + ".kt");
+    }
+
+    @NotNull
+    private static CompilerConfiguration createConfiguration() {
+        CompilerConfiguration configuration = JetTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK);
+        configuration.put(JVMConfigurationKeys.JVM_8_TARGET, true);
+        return configuration;
+    }
+
+    private void checkGeneratedClasses(@NotNull String filename) throws Exception {
+        loadFileByFullPath(filename);
+        countAndCompareActualOccurrences(readExpectedOccurrences(filename));
+
+        for (OutputFile file : generateClassesInFile().asList()) {
+            byte[] bytes = file.asByteArray();
+            // major_version follows the magic number and minor_version
+            int majorVersion = ((bytes[6] & 0xFF) << 8) | (bytes[7] & 0xFF);
+            assertEquals("Class file version of " + file.getRelativePath(), JVM_8_CLASS_FILE_VERSION, majorVersion);
+        }
+
+        // LambdaMetafactory is only available at runtime since JDK 1.8
+        if (SystemInfo.isJavaVersionAtLeast("1.8")) {
+            assertEquals("OK", generateFunction("box").invoke(null));
+        }
+    }
+
+    @NotNull
+    private String getTestPath() {
+        return JetTestUtils.getTestDataPathBase() + "/codegen/" + getPrefix() + "/" + getTestName(true);
+    }
+
+    private void doTest() throws Exception {
+        doTest(getTestPath() + ".kt");
+    }
+
+    public void testSamAdapterByInvokeDynamic() throws Exception {
+        doTest();
+    }
+
+    public void testSamAdapterInInlineFunction() throws Exception {
+        doTest();
+    }
+
+    public void testSerializableSamInterface() throws Exception {
+        doTestWithJava(getTestPath());
+    }
+}
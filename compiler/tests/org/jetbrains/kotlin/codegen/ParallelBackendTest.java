@@ -0,0 +1,69 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.jvm.JVMConfigurationKeys;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.test.ConfigurationKind;
+import org.jetbrains.kotlin.test.JetTestUtils;
+import org.jetbrains.kotlin.test.TestJdkKind;
+
+public class ParallelBackendTest extends CodegenTestCase {
+    @NotNull
+    @Override
+    protected String getPrefix() {
+        return "parallelBackend";
+    }
+
+    private void doTest() throws Exception {
+        String filename = JetTestUtils.getTestDataPathBase() + "/codegen/" + getPrefix() + "/" + getTestName(true) + ".kt";
+
+        String sequentialText = generateToText(filename, false);
+
+        classFileFactory = null;
+        initializedClassLoader = null;
+        String parallelText = generateToText(filename, true);
+
+        assertEquals("Classes generated in parallel differ from the ones generated sequentially", sequentialText, parallelText);
+        assertEquals("OK", generateFunction("box").invoke(null));
+    }
+
+    @NotNull
+    private String generateToText(@NotNull String filename, boolean parallelBackend) {
+        CompilerConfiguration configuration = JetTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK);
+        configuration.put(JVMConfigurationKeys.PARALLEL_BACKEND, parallelBackend);
+        myEnvironment = JetCoreEnvironment.createForTests(getTestRootDisposable(), configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+
+        loadFileByFullPath(filename);
+        return generateToText();
+    }
+
+    public void testInlineLambdas() throws Exception {
+        doTest();
+    }
+
+    public void testBoxingAndWhen() throws Exception {
+        doTest();
+    }
+
+    public void testMergedAnonymousObjects() throws Exception {
+        doTest();
+    }
+}
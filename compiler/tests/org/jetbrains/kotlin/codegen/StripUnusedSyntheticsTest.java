@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.jvm.JVMConfigurationKeys;
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
+import org.jetbrains.kotlin.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.test.ConfigurationKind;
+import org.jetbrains.kotlin.test.JetTestUtils;
+import org.jetbrains.kotlin.test.TestJdkKind;
+
+public class StripUnusedSyntheticsTest extends AbstractBytecodeTextTest {
+    @NotNull
+    @Override
+    protected String getPrefix() {
+        return "stripUnusedSynthetics";
+    }
+
+    @Override
+    public void doTest(@NotNull String filename) throws Exception {
+        CompilerConfiguration configuration = JetTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK);
+        configuration.put(JVMConfigurationKeys.STRIP_UNUSED_SYNTHETICS, true);
+        myEnvironment = JetCoreEnvironment.createForTests(getTestRootDisposable(), configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+
+        loadFileByFullPath(filename);
+        assertEquals("OK", generateFunction("box").invoke(null));
+        countAndCompareActualOccurrences(readExpectedOccurrences(filename));
+    }
+
+    private void doTest() throws Exception {
+        doTest(JetTestUtils.getTestDataPathBase() + "/codegen/" + getPrefix() + "/" + getTestName(true) + ".kt");
+    }
+
+    public void testAccessorsInlinedIntoOwnClass() throws Exception {
+        doTest();
+    }
+
+    public void testUnusedCompanionAccessor() throws Exception {
+        doTest();
+    }
+
+    public void testPrivateInlineFunction() throws Exception {
+        doTest();
+    }
+}
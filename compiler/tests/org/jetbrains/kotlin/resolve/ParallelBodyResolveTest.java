@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.builtins.KotlinBuiltIns;
+import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport;
+import org.jetbrains.kotlin.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.kotlin.context.ContextPackage;
+import org.jetbrains.kotlin.descriptors.impl.ModuleDescriptorImpl;
+import org.jetbrains.kotlin.diagnostics.Diagnostic;
+import org.jetbrains.kotlin.diagnostics.rendering.DefaultErrorMessages;
+import org.jetbrains.kotlin.psi.JetFile;
+import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM;
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment;
+import org.jetbrains.kotlin.test.ConfigurationKind;
+import org.jetbrains.kotlin.test.JetTestUtils;
+import org.jetbrains.kotlin.util.slicedMap.WritableSlice;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+public class ParallelBodyResolveTest extends KotlinTestWithEnvironment {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testDiagnostics() throws Exception {
+        doTest();
+    }
+
+    public void testBodyTracesAreMergedAfterAllBodiesAreResolved() throws Exception {
+        JetFile jetFile = loadFile("diagnostics");
+
+        // No worker picks the bodies up, so they are resolved one by one on this thread and stay unfinished until then
+        final List<FutureTask<?>> bodies = new ArrayList<FutureTask<?>>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(@NotNull Runnable command) {
+                bodies.add((FutureTask<?>) command);
+            }
+        };
+
+        final Thread analyzingThread = Thread.currentThread();
+        final List<String> earlyMerges = new ArrayList<String>();
+        BindingTrace trace = new CliLightClassGenerationSupport.CliBindingTrace() {
+            @Override
+            public <K, V> void record(WritableSlice<K, V> slice, K key, V value) {
+                checkNotMergedEarly(slice + " of " + key);
+                super.record(slice, key, value);
+            }
+
+            @Override
+            public void report(@NotNull Diagnostic diagnostic) {
+                checkNotMergedEarly(diagnostic.getFactory().getName());
+                super.report(diagnostic);
+            }
+
+            // Records written by the analyzing thread outside of a body come from the merge
+            private void checkNotMergedEarly(@NotNull String record) {
+                if (Thread.currentThread() != analyzingThread || isResolvingBody()) return;
+                for (FutureTask<?> body : bodies) {
+                    if (!body.isDone()) {
+                        earlyMerges.add(record);
+                        return;
+                    }
+                }
+            }
+        };
+
+        analyze(jetFile, trace, executor);
+        assertTrue("Bodies should be handed to the executor", bodies.size() > 1);
+        assertEquals("Body traces are merged while other bodies are resolved", Collections.<String>emptyList(), earlyMerges);
+    }
+
+    private static boolean isResolvingBody() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            if (element.getClassName().equals(FutureTask.class.getName()) && element.getMethodName().equals("run")) return true;
+        }
+        return false;
+    }
+
+    private void doTest() throws Exception {
+        JetFile jetFile = loadFile(getTestName(true));
+
+        String sequentialDiagnostics = renderDiagnostics(analyze(jetFile, null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String parallelDiagnostics = renderDiagnostics(analyze(jetFile, executor));
+            assertFalse("The test file should have diagnostics", sequentialDiagnostics.isEmpty());
+            assertEquals("Diagnostics reported in parallel differ from the ones reported sequentially",
+                         sequentialDiagnostics, parallelDiagnostics);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @NotNull
+    private JetFile loadFile(@NotNull String name) throws Exception {
+        File file = new File(JetTestUtils.getTestDataPathBase() + "/resolve/parallelBodyResolve/" + name + ".kt");
+        return JetTestUtils.createFile(file.getName(), FileUtil.loadFile(file, true), getProject());
+    }
+
+    @NotNull
+    private BindingContext analyze(@NotNull JetFile file, @Nullable Executor executor) {
+        return analyze(file, new CliLightClassGenerationSupport.CliBindingTrace(), executor);
+    }
+
+    @NotNull
+    private BindingContext analyze(@NotNull JetFile file, @NotNull BindingTrace trace, @Nullable Executor executor) {
+        ModuleDescriptorImpl module = TopDownAnalyzerFacadeForJVM.createJavaModule("<module>");
+        module.addDependencyOnModule(module);
+        module.addDependencyOnModule(KotlinBuiltIns.getInstance().getBuiltInsModule());
+        module.seal();
+
+        return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
+                getProject(), ContextPackage.GlobalContext(), Collections.singleton(file),
+                trace, module, null, null, executor
+        ).getBindingContext();
+    }
+
+    // Diagnostics are sorted by position, as the command line compiler reports them
+    @NotNull
+    private static String renderDiagnostics(@NotNull BindingContext context) {
+        List<String> rendered = new ArrayList<String>();
+        for (Diagnostic diagnostic : context.getDiagnostics()) {
+            int offset = diagnostic.getTextRanges().get(0).getStartOffset();
+            rendered.add(String.format("%06d %s: %s", offset, diagnostic.getFactory().getName(), DefaultErrorMessages.render(diagnostic)));
+        }
+        Collections.sort(rendered);
+        return StringUtil.join(rendered, "\n");
+    }
+}
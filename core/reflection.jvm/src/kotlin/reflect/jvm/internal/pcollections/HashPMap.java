@@ -23,7 +23,7 @@ import org.jetbrains.annotations.NotNull;
  * @suppress
  */
 public final class HashPMap<K, V> {
-    private static final HashPMap<Object, Object> EMPTY = new HashPMap<Object, Object>(IntTreePMap.<ConsPStack<MapEntry<Object, Object>>>empty(), 0);
+    private static final HashPMap<Object, Object> EMPTY = new HashPMap<Object, Object>(HashTrieNode.EMPTY, 0);
 
     @SuppressWarnings("unchecked")
     @NotNull
@@ -31,11 +31,11 @@ public final class HashPMap<K, V> {
         return (HashPMap<K, V>) HashPMap.EMPTY;
     }
 
-    private final IntTreePMap<ConsPStack<MapEntry<K, V>>> intMap;
+    private final HashTrieNode root;
     private final int size;
 
-    private HashPMap(IntTreePMap<ConsPStack<MapEntry<K, V>>> intMap, int size) {
-        this.intMap = intMap;
+    private HashPMap(HashTrieNode root, int size) {
+        this.root = root;
         this.size = size;
     }
 
@@ -44,53 +44,26 @@ public final class HashPMap<K, V> {
     }
 
     public boolean containsKey(Object key) {
-        return keyIndexIn(getEntries(key.hashCode()), key) != -1;
+        return root.get(key, key.hashCode(), 0) != null;
     }
 
+    @SuppressWarnings("unchecked")
     public V get(Object key) {
-        ConsPStack<MapEntry<K, V>> entries = getEntries(key.hashCode());
-        for (MapEntry<K, V> entry : entries)
-            if (entry.key.equals(key))
-                return entry.value;
-        return null;
+        return (V) root.get(key, key.hashCode(), 0);
     }
 
     @NotNull
     public HashPMap<K, V> plus(K key, V value) {
-        ConsPStack<MapEntry<K, V>> entries = getEntries(key.hashCode());
-        int size0 = entries.size();
-        int i = keyIndexIn(entries, key);
-        if (i != -1) entries = entries.minus(i);
-        entries = entries.plus(new MapEntry<K, V>(key, value));
-        return new HashPMap<K, V>(intMap.plus(key.hashCode(), entries), size - size0 + entries.size());
+        int hash = key.hashCode();
+        HashTrieNode newRoot = root.plus(key, value, hash, 0);
+        if (newRoot == root) return this;
+        return new HashPMap<K, V>(newRoot, root.get(key, hash, 0) == null ? size + 1 : size);
     }
 
     @NotNull
     public HashPMap<K, V> minus(Object key) {
-        ConsPStack<MapEntry<K, V>> entries = getEntries(key.hashCode());
-        int i = keyIndexIn(entries, key);
-        if (i == -1) // key not in this
-            return this;
-        entries = entries.minus(i);
-        if (entries.size() == 0) // get rid of the entire hash entry
-            return new HashPMap<K, V>(intMap.minus(key.hashCode()), size - 1);
-        // otherwise replace hash entry with new smaller one:
-        return new HashPMap<K, V>(intMap.plus(key.hashCode(), entries), size - 1);
-    }
-
-    private ConsPStack<MapEntry<K, V>> getEntries(int hash) {
-        ConsPStack<MapEntry<K, V>> entries = intMap.get(hash);
-        if (entries == null) return ConsPStack.empty();
-        return entries;
-    }
-
-    private static <K, V> int keyIndexIn(ConsPStack<MapEntry<K, V>> entries, Object key) {
-        int i = 0;
-        for (MapEntry<K, V> entry : entries) {
-            if (entry.key.equals(key))
-                return i;
-            i++;
-        }
-        return -1;
+        HashTrieNode newRoot = root.minus(key, key.hashCode(), 0);
+        if (newRoot == root) return this;
+        return new HashPMap<K, V>(newRoot, size - 1);
     }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kotlin.reflect.jvm.internal.pcollections;
+
+/**
+ * A node of a persistent hash array mapped trie from non-null keys to non-null values.
+ * <p/>
+ * Each level of the trie consumes {@link #BITS} bits of the key's hash code. The occupied slots of a node are marked in
+ * {@link #bitmap} and stored compactly in {@link #array} as pairs: either a key and its value, or {@code null} and a child node.
+ * Keys whose hash codes are equal are kept below the last level in a collision node, whose array is a plain list of
+ * key-value pairs.
+ */
+final class HashTrieNode {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    static final HashTrieNode EMPTY = new HashTrieNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    private HashTrieNode(int bitmap, Object[] array) {
+        this.bitmap = bitmap;
+        this.array = array;
+    }
+
+    private static boolean isCollisionLevel(int shift) {
+        return shift >= 32;
+    }
+
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private int indexOf(int bit) {
+        return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    Object get(Object key, int hash, int shift) {
+        if (isCollisionLevel(shift)) {
+            int index = collisionIndexOf(key);
+            return index == -1 ? null : array[index + 1];
+        }
+
+        int bit = bitFor(hash, shift);
+        if ((bitmap & bit) == 0) return null;
+
+        int index = indexOf(bit);
+        Object k = array[index];
+        if (k == null) return ((HashTrieNode) array[index + 1]).get(key, hash, shift + BITS);
+        return key.equals(k) ? array[index + 1] : null;
+    }
+
+    HashTrieNode plus(Object key, Object value, int hash, int shift) {
+        if (isCollisionLevel(shift)) {
+            int index = collisionIndexOf(key);
+            if (index == -1) return inserted(bitmap, array.length, key, value);
+            return array[index + 1] == value ? this : replaced(index, key, value);
+        }
+
+        int bit = bitFor(hash, shift);
+        int index = indexOf(bit);
+        if ((bitmap & bit) == 0) return inserted(bitmap | bit, index, key, value);
+
+        Object k = array[index];
+        if (k == null) {
+            HashTrieNode child = (HashTrieNode) array[index + 1];
+            HashTrieNode newChild = child.plus(key, value, hash, shift + BITS);
+            return newChild == child ? this : replaced(index, null, newChild);
+        }
+        if (key.equals(k)) {
+            return array[index + 1] == value ? this : replaced(index, k, value);
+        }
+
+        // Two different keys in the same slot: push both of them one level down
+        HashTrieNode child = EMPTY
+                .plus(k, array[index + 1], k.hashCode(), shift + BITS)
+                .plus(key, value, hash, shift + BITS);
+        return replaced(index, null, child);
+    }
+
+    HashTrieNode minus(Object key, int hash, int shift) {
+        if (isCollisionLevel(shift)) {
+            int index = collisionIndexOf(key);
+            return index == -1 ? this : removed(bitmap, index);
+        }
+
+        int bit = bitFor(hash, shift);
+        if ((bitmap & bit) == 0) return this;
+
+        int index = indexOf(bit);
+        Object k = array[index];
+        if (k == null) {
+            HashTrieNode child = (HashTrieNode) array[index + 1];
+            HashTrieNode newChild = child.minus(key, hash, shift + BITS);
+            if (newChild == child) return this;
+            if (newChild.array.length == 0) return removed(bitmap & ~bit, index);
+            if (newChild.array.length == 2 && newChild.array[0] != null) {
+                // A single entry is left in the child, store it in this node instead
+                return replaced(index, newChild.array[0], newChild.array[1]);
+            }
+            return replaced(index, null, newChild);
+        }
+        return key.equals(k) ? removed(bitmap & ~bit, index) : this;
+    }
+
+    private int collisionIndexOf(Object key) {
+        for (int i = 0; i < array.length; i += 2) {
+            if (key.equals(array[i])) return i;
+        }
+        return -1;
+    }
+
+    private HashTrieNode inserted(int newBitmap, int index, Object key, Object value) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        System.arraycopy(array, index, newArray, index + 2, array.length - index);
+        return new HashTrieNode(newBitmap, newArray);
+    }
+
+    private HashTrieNode replaced(int index, Object key, Object value) {
+        Object[] newArray = array.clone();
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        return new HashTrieNode(bitmap, newArray);
+    }
+
+    private HashTrieNode removed(int newBitmap, int index) {
+        if (array.length == 2) return EMPTY;
+        Object[] newArray = new Object[array.length - 2];
+        System.arraycopy(array, 0, newArray, 0, index);
+        System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+        return new HashTrieNode(newBitmap, newArray);
+    }
+}
@@ -101,7 +101,7 @@ public class KotlinCacheService(val project: Project) {
 
     private val globalCachesPerPlatform = listOf(JVM, JS).keysToMap { platform -> GlobalCache(platform) }
 
-    private inner class GlobalCache(platform: TargetPlatform) {
+    private inner class GlobalCache(private val platform: TargetPlatform) {
         val librariesCache = KotlinResolveCache(
                 project, globalResolveSessionProvider(platform,
                                                       logProcessCanceled = true,
@@ -111,12 +111,65 @@ public class KotlinCacheService(val project: Project) {
                                                               ProjectRootModificationTracker.getInstance(project)))
         )
 
-        val modulesCache = KotlinResolveCache(
-                project, globalResolveSessionProvider(platform,
-                                                      reuseDataFromCache = librariesCache,
-                                                      moduleFilter = { !it.isLibraryClasses() },
-                                                      dependencies = listOf(PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT))
-        )
+        private val modificationTracker = ModuleOutOfBlockModificationTracker(project)
+        private var previousModulesProvider: ModuleResolverProviderImpl? = null
+        private var previousLibrariesProvider: ModuleResolverProvider? = null
+        private var previousExceptionCount = 0L
+
+        val modulesCache = KotlinResolveCache(project) {
+            val librariesProvider = librariesCache.moduleResolverProvider
+            val modifiedModules = modificationTracker.takeModifiedModules()
+            val previousProvider = previousModulesProvider
+
+            val moduleResolverProvider =
+                    if (previousProvider != null && modifiedModules != null &&
+                        librariesProvider === previousLibrariesProvider &&
+                        previousProvider.exceptionTracker.getModificationCount() == previousExceptionCount) {
+                        updateModulesResolverProvider(previousProvider, librariesProvider, modifiedModules)
+                    }
+                    else {
+                        createModulesResolverProvider(librariesProvider)
+                    }
+
+            previousModulesProvider = moduleResolverProvider
+            previousLibrariesProvider = librariesProvider
+            previousExceptionCount = moduleResolverProvider.exceptionTracker.getModificationCount()
+
+            CachedValueProvider.Result.create(
+                    moduleResolverProvider,
+                    PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT,
+                    ProjectRootModificationTracker.getInstance(project),
+                    moduleResolverProvider.exceptionTracker
+            )
+        }
+
+        private fun createModulesResolverProvider(librariesProvider: ModuleResolverProvider): ModuleResolverProviderImpl {
+            val globalContext = (librariesProvider as ModuleResolverProviderImpl).globalContext.withCompositeExceptionTrackerUnderSameLock()
+            return createModuleResolverProvider(
+                    project, globalContext, AnalyzerFacadeProvider.getAnalyzerFacade(platform), listOf(), librariesProvider,
+                    moduleFilter = { !it.isLibraryClasses() }
+            )
+        }
+
+        // Only the modified modules and the modules depending on them, directly or not, are resolved anew,
+        // resolvers of other source modules don't see the modified declarations and are shared with the previous provider
+        private fun updateModulesResolverProvider(
+                previousProvider: ModuleResolverProviderImpl,
+                librariesProvider: ModuleResolverProvider,
+                modifiedModules: Set<ModuleSourceInfo>
+        ): ModuleResolverProviderImpl {
+            if (modifiedModules.isEmpty()) return previousProvider
+
+            val affectedModules = modifiedModules.getTransitiveDependentModules()
+            val reusedModules = previousProvider.resolverForProject.allModules.filter {
+                !it.isLibraryClasses() && it !in affectedModules
+            }
+            val delegateProvider = ReusedModulesResolverProvider(previousProvider, reusedModules, librariesProvider)
+            return createModuleResolverProvider(
+                    project, previousProvider.globalContext, AnalyzerFacadeProvider.getAnalyzerFacade(platform), listOf(), delegateProvider,
+                    moduleFilter = { !it.isLibraryClasses() && it in affectedModules }
+            )
+        }
     }
 
     private fun getGlobalCache(platform: TargetPlatform) = globalCachesPerPlatform[platform]!!.modulesCache
@@ -34,6 +34,7 @@ import org.jetbrains.kotlin.analyzer.ResolverForProject
 import org.jetbrains.kotlin.analyzer.ModuleContent
 import org.jetbrains.kotlin.analyzer.EmptyResolverForProject
 import org.jetbrains.kotlin.context.GlobalContextImpl
+import org.jetbrains.kotlin.descriptors.ModuleDescriptor
 
 fun createModuleResolverProvider(
         project: Project,
@@ -139,3 +140,41 @@ class ModuleResolverProviderImpl(
             bodiesResolveByModule[module] ?:
             delegateProvider.resolveSessionForBodiesByModule(module)
 }
+
+/**
+ * Provides resolvers created by [previousProvider] for [reusedModules] and delegates to [delegateProvider] for other modules.
+ * The resolvers are copied so that the providers built on top of this one don't keep the whole chain of previous providers.
+ */
+class ReusedModulesResolverProvider(
+        previousProvider: ModuleResolverProvider,
+        reusedModules: Collection<IdeaModuleInfo>,
+        private val delegateProvider: ModuleResolverProvider
+): ModuleResolverProvider {
+    override val exceptionTracker: ExceptionTracker = delegateProvider.exceptionTracker
+
+    private val bodiesResolveByModule = reusedModules.keysToMap { previousProvider.resolveSessionForBodiesByModule(it) }
+
+    override fun resolveSessionForBodiesByModule(module: IdeaModuleInfo): ResolveSessionForBodies =
+            bodiesResolveByModule[module] ?:
+            delegateProvider.resolveSessionForBodiesByModule(module)
+
+    override val resolverForProject: ResolverForProject<IdeaModuleInfo, ResolverForModule> =
+            ReusedModulesResolverForProject(previousProvider.resolverForProject, reusedModules, delegateProvider.resolverForProject)
+}
+
+private class ReusedModulesResolverForProject(
+        previousResolver: ResolverForProject<IdeaModuleInfo, ResolverForModule>,
+        reusedModules: Collection<IdeaModuleInfo>,
+        private val delegateResolver: ResolverForProject<IdeaModuleInfo, ResolverForModule>
+) : ResolverForProject<IdeaModuleInfo, ResolverForModule> {
+    private val resolverByModule = reusedModules.keysToMap { previousResolver.resolverForModule(it) }
+    private val descriptorByModule = reusedModules.keysToMap { previousResolver.descriptorForModule(it) }
+
+    override fun resolverForModule(moduleInfo: IdeaModuleInfo): ResolverForModule =
+            resolverByModule[moduleInfo] ?: delegateResolver.resolverForModule(moduleInfo)
+
+    override fun descriptorForModule(moduleInfo: IdeaModuleInfo): ModuleDescriptor =
+            descriptorByModule[moduleInfo] ?: delegateResolver.descriptorForModule(moduleInfo)
+
+    override val allModules: Collection<IdeaModuleInfo> = (reusedModules + delegateResolver.allModules).toSet()
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.idea.caches.resolve
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.psi.util.PsiModificationTracker
+import org.jetbrains.kotlin.asJava.KotlinCodeBlockModificationListener
+import org.jetbrains.kotlin.asJava.OutOfBlockModificationListener
+import org.jetbrains.kotlin.psi.JetFile
+import java.util.HashSet
+
+/**
+ * Collects source modules containing Kotlin files which had out of code block modifications.
+ * Every out of code block modification of a Kotlin file is reported by [KotlinCodeBlockModificationListener] right after
+ * incrementing [PsiModificationTracker.getOutOfCodeBlockModificationCount], so if the counter advanced by more than
+ * the number of reported modifications, some changes (e.g. in Java files) can't be attributed to any module.
+ */
+class ModuleOutOfBlockModificationTracker(project: Project) {
+    private val psiModificationTracker = PsiModificationTracker.SERVICE.getInstance(project)
+    private val rootModificationTracker = ProjectRootModificationTracker.getInstance(project)
+
+    private var outOfBlockModificationCount = psiModificationTracker.getOutOfCodeBlockModificationCount()
+    private var rootModificationCount = rootModificationTracker.getModificationCount()
+    private var reportedModificationCount = 0L
+    private var hasModificationsOutsideOfSourceModules = false
+    private val modifiedModules = HashSet<ModuleSourceInfo>()
+
+    {
+        project.getMessageBus().connect().subscribe(KotlinCodeBlockModificationListener.OUT_OF_BLOCK_MODIFICATION,
+                object : OutOfBlockModificationListener {
+                    override fun outOfBlockModification(file: JetFile) = fileModified(file)
+                })
+    }
+
+    private fun fileModified(file: JetFile) {
+        val moduleInfo = file.getModuleInfo()
+        synchronized(this) {
+            if (moduleInfo is ModuleSourceInfo) {
+                modifiedModules.add(moduleInfo)
+            }
+            else {
+                hasModificationsOutsideOfSourceModules = true
+            }
+            reportedModificationCount++
+        }
+    }
+
+    /**
+     * Returns source modules modified since the previous call to this function
+     * or null if some of the modifications can't be attributed to them, and starts collecting modifications anew.
+     */
+    fun takeModifiedModules(): Set<ModuleSourceInfo>? = synchronized(this) {
+        val currentOutOfBlockModificationCount = psiModificationTracker.getOutOfCodeBlockModificationCount()
+        val currentRootModificationCount = rootModificationTracker.getModificationCount()
+
+        val allModificationsReported = !hasModificationsOutsideOfSourceModules
+                                       && currentRootModificationCount == rootModificationCount
+                                       && currentOutOfBlockModificationCount == outOfBlockModificationCount + reportedModificationCount
+        val result = if (allModificationsReported) HashSet(modifiedModules) else null
+
+        outOfBlockModificationCount = currentOutOfBlockModificationCount
+        rootModificationCount = currentRootModificationCount
+        reportedModificationCount = 0
+        hasModificationsOutsideOfSourceModules = false
+        modifiedModules.clear()
+
+        result
+    }
+}
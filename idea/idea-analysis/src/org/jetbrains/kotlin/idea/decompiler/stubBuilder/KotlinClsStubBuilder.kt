@@ -36,7 +36,7 @@ import org.jetbrains.kotlin.psi.JetFile
 import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
 
 public open class KotlinClsStubBuilder : ClsStubBuilder() {
-    override fun getStubVersion() = ClassFileStubBuilder.STUB_VERSION + 1
+    override fun getStubVersion() = ClassFileStubBuilder.STUB_VERSION + 2
 
     override fun buildFileStub(content: FileContent): PsiFileStub<*>? {
         val file = content.getFile()
@@ -18,13 +18,18 @@ package org.jetbrains.kotlin.idea.stubindex;
 
 import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.StubElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.load.java.JvmAbi;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.name.Name;
 import org.jetbrains.kotlin.psi.JetClassOrObject;
 import org.jetbrains.kotlin.psi.stubs.*;
+import org.jetbrains.kotlin.psi.stubs.elements.JetStubElementTypes;
 import org.jetbrains.kotlin.psi.stubs.elements.StubIndexService;
 
+import java.util.List;
+
 public class StubIndexServiceImpl implements StubIndexService {
 
     @Override
@@ -96,6 +101,10 @@ public class StubIndexServiceImpl implements StubIndexService {
                 sink.occurrence(JetTopLevelFunctionFqnNameIndex.getInstance().getKey(), fqName.asString());
                 sink.occurrence(JetTopLevelFunctionByPackageIndex.getInstance().getKey(), fqName.parent().asString());
             }
+
+            if (stub.isExtension()) {
+                indexReceiverTypeName(stub, sink);
+            }
         }
     }
 
@@ -117,7 +126,91 @@ public class StubIndexServiceImpl implements StubIndexService {
                 sink.occurrence(JetTopLevelPropertyFqnNameIndex.getInstance().getKey(), fqName.asString());
                 sink.occurrence(JetTopLevelPropertyByPackageIndex.getInstance().getKey(), fqName.parent().asString());
             }
+
+            if (stub.hasReceiverTypeRef()) {
+                indexReceiverTypeName(stub, sink);
+            }
+        }
+    }
+
+    private static void indexReceiverTypeName(StubElement<?> callableStub, IndexSink sink) {
+        String name = getReceiverTypeShortName(callableStub);
+        sink.occurrence(JetTopLevelExtensionsByReceiverTypeIndex.getInstance().getKey(), name);
+
+        // Extensions are looked up by the names of the classes, so a receiver type imported under an alias is indexed by its own name too
+        String importedName = getShortNameImportedByAlias(callableStub, name);
+        if (importedName != null && !importedName.equals(name)) {
+            sink.occurrence(JetTopLevelExtensionsByReceiverTypeIndex.getInstance().getKey(), importedName);
+        }
+    }
+
+    /**
+     * Receiver type reference is the first type reference among children of an extension function or property stub,
+     * the value parameter types and the return type reference go after it.
+     */
+    @NotNull
+    private static String getReceiverTypeShortName(StubElement<?> callableStub) {
+        StubElement typeReference = callableStub.findChildStubByType(JetStubElementTypes.TYPE_REFERENCE);
+        if (typeReference == null) return JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY;
+
+        StubElement typeElement = getFirstChild(typeReference);
+        if (typeElement != null && typeElement.getStubType() == JetStubElementTypes.NULLABLE_TYPE) {
+            typeElement = getFirstChild(typeElement);
         }
+        if (typeElement == null || typeElement.getStubType() != JetStubElementTypes.USER_TYPE) {
+            return JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY;
+        }
+
+        StubElement reference = typeElement.findChildStubByType(JetStubElementTypes.REFERENCE_EXPRESSION);
+        if (reference == null) return JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY;
+
+        String name = ((KotlinNameReferenceExpressionStub) reference).getReferencedName();
+        return isTypeParameterName(callableStub, name) ? JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY : name;
+    }
+
+    @Nullable
+    private static String getShortNameImportedByAlias(StubElement<?> callableStub, String alias) {
+        StubElement fileStub = callableStub.getParentStub();
+        if (!(fileStub instanceof KotlinFileStub)) return null;
+
+        StubElement importList = fileStub.findChildStubByType(JetStubElementTypes.IMPORT_LIST);
+        if (importList == null) return null;
+
+        for (Object importDirective : importList.getChildrenStubs()) {
+            if (!(importDirective instanceof KotlinImportDirectiveStub) ||
+                !alias.equals(((KotlinImportDirectiveStub) importDirective).getAliasName())) {
+                continue;
+            }
+
+            // The short name is the selector of the last qualified expression in the imported reference
+            StubElement reference = getFirstChild((StubElement) importDirective);
+            while (reference != null && reference.getStubType() == JetStubElementTypes.DOT_QUALIFIED_EXPRESSION) {
+                List children = reference.getChildrenStubs();
+                reference = children.isEmpty() ? null : (StubElement) children.get(children.size() - 1);
+            }
+            if (reference instanceof KotlinNameReferenceExpressionStub) {
+                return ((KotlinNameReferenceExpressionStub) reference).getReferencedName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTypeParameterName(StubElement<?> callableStub, String name) {
+        StubElement typeParameterList = callableStub.findChildStubByType(JetStubElementTypes.TYPE_PARAMETER_LIST);
+        if (typeParameterList == null) return false;
+
+        for (Object typeParameter : typeParameterList.getChildrenStubs()) {
+            if (typeParameter instanceof KotlinTypeParameterStub && name.equals(((KotlinTypeParameterStub) typeParameter).getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private static StubElement getFirstChild(StubElement stub) {
+        List children = stub.getChildrenStubs();
+        return children.isEmpty() ? null : (StubElement) children.get(0);
     }
 
     @Override
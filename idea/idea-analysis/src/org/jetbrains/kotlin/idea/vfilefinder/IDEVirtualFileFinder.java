@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.idea.vfilefinder;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.impl.file.impl.JavaFileManager;
@@ -26,8 +27,10 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.indexing.FileBasedIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.load.kotlin.KotlinJvmBinaryClass;
 import org.jetbrains.kotlin.load.kotlin.VirtualFileFinder;
 import org.jetbrains.kotlin.load.kotlin.VirtualFileKotlinClassFinder;
+import org.jetbrains.kotlin.name.ClassId;
 import org.jetbrains.kotlin.name.FqName;
 
 import java.util.Collection;
@@ -61,6 +64,23 @@ public final class IDEVirtualFileFinder extends VirtualFileKotlinClassFinder imp
         return files.iterator().next();
     }
 
+    @Nullable
+    @Override
+    public KotlinJvmBinaryClass findKotlinClass(@NotNull ClassId classId) {
+        // The header is taken from the index, the class file itself is read only when the class members are loaded
+        final Ref<KotlinJvmBinaryClass> result = Ref.create();
+        FileBasedIndex.getInstance().processValues(
+                KotlinClassFileIndex.KEY, classId.asSingleFqName(), null,
+                new FileBasedIndex.ValueProcessor<KotlinClassFileIndex.ClassData>() {
+                    @Override
+                    public boolean process(VirtualFile file, KotlinClassFileIndex.ClassData value) {
+                        result.set(value.createKotlinClass(file));
+                        return false;
+                    }
+                }, scope);
+        return result.get();
+    }
+
     @Override
     public VirtualFile findVirtualFile(@NotNull String internalName) {
         JavaFileManager fileFinder = ServiceManager.getService(project, JavaFileManager.class);
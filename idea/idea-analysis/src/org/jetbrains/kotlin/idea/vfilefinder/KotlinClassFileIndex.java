@@ -20,10 +20,18 @@ import com.intellij.ide.highlighter.JavaClassFileType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.KeyDescriptor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.load.java.JvmAnnotationNames.KotlinClass;
+import org.jetbrains.kotlin.load.java.JvmAnnotationNames.KotlinSyntheticClass;
+import org.jetbrains.kotlin.load.kotlin.FileBasedKotlinClass;
 import org.jetbrains.kotlin.load.kotlin.KotlinBinaryClassCache;
 import org.jetbrains.kotlin.load.kotlin.KotlinJvmBinaryClass;
+import org.jetbrains.kotlin.load.kotlin.VirtualFileKotlinClass;
+import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader;
+import org.jetbrains.kotlin.name.ClassId;
 import org.jetbrains.kotlin.name.FqName;
 
 import java.io.DataInput;
@@ -32,11 +40,36 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
-public final class KotlinClassFileIndex extends ScalarIndexExtension<FqName> {
+/**
+ * Maps fq names of compiled Kotlin classes to their headers, so that the headers are read from the persistent index
+ * instead of parsing the class files each time descriptors are created for a library.
+ */
+public final class KotlinClassFileIndex extends FileBasedIndexExtension<FqName, KotlinClassFileIndex.ClassData> {
 
     private static final Logger LOG = Logger.getInstance(KotlinClassFileIndex.class);
-    private static final int VERSION = 2;
-    public static final ID<FqName, Void> KEY = ID.create(KotlinClassFileIndex.class.getCanonicalName());
+    private static final int VERSION = 3;
+    public static final ID<FqName, ClassData> KEY = ID.create(KotlinClassFileIndex.class.getCanonicalName());
+
+    public static final class ClassData {
+        @NotNull public final ClassId classId;
+        @NotNull public final KotlinClassHeader classHeader;
+        @NotNull public final FileBasedKotlinClass.InnerClassesInfo innerClasses;
+
+        public ClassData(
+                @NotNull ClassId classId,
+                @NotNull KotlinClassHeader classHeader,
+                @NotNull FileBasedKotlinClass.InnerClassesInfo innerClasses
+        ) {
+            this.classId = classId;
+            this.classHeader = classHeader;
+            this.innerClasses = innerClasses;
+        }
+
+        @NotNull
+        public KotlinJvmBinaryClass createKotlinClass(@NotNull VirtualFile file) {
+            return VirtualFileKotlinClass.Factory.create(file, classId, classHeader, innerClasses);
+        }
+    }
 
     private static final KeyDescriptor<FqName> KEY_DESCRIPTOR = new KeyDescriptor<FqName>() {
         @Override
@@ -60,20 +93,106 @@ public final class KotlinClassFileIndex extends ScalarIndexExtension<FqName> {
         }
     };
 
+    private static final DataExternalizer<ClassData> VALUE_EXTERNALIZER = new DataExternalizer<ClassData>() {
+        @Override
+        public void save(@NotNull DataOutput out, ClassData value) throws IOException {
+            ClassId classId = value.classId;
+            out.writeUTF(classId.getPackageFqName().asString());
+            out.writeUTF(classId.getRelativeClassName().asString());
+            out.writeBoolean(classId.isLocal());
+
+            KotlinClassHeader header = value.classHeader;
+            out.writeInt(header.getKind().ordinal());
+            out.writeInt(header.getVersion());
+            String[] annotationData = header.getAnnotationData();
+            out.writeInt(annotationData == null ? -1 : annotationData.length);
+            if (annotationData != null) {
+                for (String data : annotationData) {
+                    out.writeUTF(data);
+                }
+            }
+            writeOrdinal(out, header.getClassKind());
+            writeOrdinal(out, header.getSyntheticClassKind());
+
+            Map<String, FileBasedKotlinClass.OuterAndInnerName> innerClasses = value.innerClasses.getAll();
+            out.writeInt(innerClasses.size());
+            for (Map.Entry<String, FileBasedKotlinClass.OuterAndInnerName> entry : innerClasses.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeNullableString(out, entry.getValue().outerInternalName);
+                writeNullableString(out, entry.getValue().innerSimpleName);
+            }
+        }
+
+        @Override
+        public ClassData read(@NotNull DataInput in) throws IOException {
+            FqName packageFqName = new FqName(in.readUTF());
+            FqName relativeClassName = new FqName(in.readUTF());
+            ClassId classId = new ClassId(packageFqName, relativeClassName, in.readBoolean());
+
+            KotlinClassHeader.Kind kind = KotlinClassHeader.Kind.values()[in.readInt()];
+            int version = in.readInt();
+            int annotationDataSize = in.readInt();
+            String[] annotationData = null;
+            if (annotationDataSize >= 0) {
+                annotationData = new String[annotationDataSize];
+                for (int i = 0; i < annotationDataSize; i++) {
+                    annotationData[i] = in.readUTF();
+                }
+            }
+            int classKind = in.readInt();
+            int syntheticClassKind = in.readInt();
+            KotlinClassHeader header = new KotlinClassHeader(
+                    kind, version, annotationData,
+                    classKind < 0 ? null : KotlinClass.Kind.values()[classKind],
+                    syntheticClassKind < 0 ? null : KotlinSyntheticClass.Kind.values()[syntheticClassKind]
+            );
+
+            FileBasedKotlinClass.InnerClassesInfo innerClasses = new FileBasedKotlinClass.InnerClassesInfo();
+            int innerClassesSize = in.readInt();
+            for (int i = 0; i < innerClassesSize; i++) {
+                innerClasses.add(in.readUTF(), readNullableString(in), readNullableString(in));
+            }
+
+            return new ClassData(classId, header, innerClasses);
+        }
+
+        private void writeOrdinal(@NotNull DataOutput out, @Nullable Enum<?> value) throws IOException {
+            out.writeInt(value == null ? -1 : value.ordinal());
+        }
+
+        private void writeNullableString(@NotNull DataOutput out, @Nullable String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        @Nullable
+        private String readNullableString(@NotNull DataInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    };
+
     private static final FileBasedIndex.InputFilter INPUT_FILTER = new FileBasedIndex.InputFilter() {
         @Override
         public boolean acceptInput(@NotNull VirtualFile file) {
             return file.getFileType() == JavaClassFileType.INSTANCE;
         }
     };
-    public static final DataIndexer<FqName, Void, FileContent> INDEXER = new DataIndexer<FqName, Void, FileContent>() {
+    public static final DataIndexer<FqName, ClassData, FileContent> INDEXER = new DataIndexer<FqName, ClassData, FileContent>() {
         @NotNull
         @Override
-        public Map<FqName, Void> map(@NotNull FileContent inputData) {
+        public Map<FqName, ClassData> map(@NotNull FileContent inputData) {
             try {
                 KotlinJvmBinaryClass kotlinClass = KotlinBinaryClassCache.getKotlinBinaryClass(inputData.getFile());
-                if (kotlinClass != null && kotlinClass.getClassHeader().getIsCompatibleAbiVersion()) {
-                    return Collections.singletonMap(kotlinClass.getClassId().asSingleFqName(), null);
+                if (kotlinClass instanceof VirtualFileKotlinClass && kotlinClass.getClassHeader().getIsCompatibleAbiVersion()) {
+                    VirtualFileKotlinClass virtualFileKotlinClass = (VirtualFileKotlinClass) kotlinClass;
+                    ClassData data = new ClassData(
+                            virtualFileKotlinClass.getClassId(),
+                            virtualFileKotlinClass.getClassHeader(),
+                            virtualFileKotlinClass.getInnerClasses()
+                    );
+                    return Collections.singletonMap(kotlinClass.getClassId().asSingleFqName(), data);
                 }
             }
             catch (Throwable e) {
@@ -85,13 +204,13 @@ public final class KotlinClassFileIndex extends ScalarIndexExtension<FqName> {
 
     @NotNull
     @Override
-    public ID<FqName, Void> getName() {
+    public ID<FqName, ClassData> getName() {
         return KEY;
     }
 
     @NotNull
     @Override
-    public DataIndexer<FqName, Void, FileContent> getIndexer() {
+    public DataIndexer<FqName, ClassData, FileContent> getIndexer() {
         return INDEXER;
     }
 
@@ -101,6 +220,12 @@ public final class KotlinClassFileIndex extends ScalarIndexExtension<FqName> {
         return KEY_DESCRIPTOR;
     }
 
+    @NotNull
+    @Override
+    public DataExternalizer<ClassData> getValueExternalizer() {
+        return VALUE_EXTERNALIZER;
+    }
+
     @NotNull
     @Override
     public FileBasedIndex.InputFilter getInputFilter() {
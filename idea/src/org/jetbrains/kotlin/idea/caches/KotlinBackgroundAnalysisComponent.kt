@@ -0,0 +1,175 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.idea.caches
+
+import com.intellij.openapi.components.AbstractProjectComponent
+import com.intellij.openapi.editor.EditorFactory
+import com.intellij.openapi.editor.event.DocumentAdapter
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.FileEditorManager
+import com.intellij.openapi.fileEditor.FileEditorManagerAdapter
+import com.intellij.openapi.fileEditor.FileEditorManagerEvent
+import com.intellij.openapi.fileEditor.FileEditorManagerListener
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.util.ProgressIndicatorBase
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.IndexNotReadyException
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiManager
+import com.intellij.util.Alarm
+import org.jetbrains.kotlin.idea.JetFileType
+import org.jetbrains.kotlin.idea.caches.resolve.analyzeFullyAndGetResult
+import org.jetbrains.kotlin.idea.util.LongRunningReadTask
+import org.jetbrains.kotlin.idea.util.ProjectRootsUtil
+import org.jetbrains.kotlin.psi.JetFile
+import java.util.ArrayList
+import java.util.LinkedHashSet
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+
+/**
+ * Analyzes the file in the selected editor and the recently edited files on a background pool shortly after they are
+ * opened or changed and the changes are committed, so that highlighting and completion find the results in the analysis cache.
+ * Background analysis runs in read actions which are cancelled as soon as a write action is about to start.
+ */
+public open class KotlinBackgroundAnalysisComponent(project: Project) : AbstractProjectComponent(project) {
+    // parent of the listeners, disposed with the component or the project
+    private val disposable = Disposer.newDisposable()
+
+    private val alarm = Alarm(Alarm.ThreadToUse.SWING_THREAD, disposable)
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(MAX_ANALYZED_FILES, object : ThreadFactory {
+        override fun newThread(r: Runnable): Thread {
+            val thread = Thread(r, "Kotlin background analysis")
+            thread.setDaemon(true)
+            thread.setPriority(Thread.MIN_PRIORITY)
+            return thread
+        }
+    })
+
+    // accessed in EDT only
+    private val recentlyEditedFiles = LinkedHashSet<VirtualFile>()
+    private val runningIndicators = ArrayList<ProgressIndicator>()
+    private var analysisRequest = 0
+
+    override fun initComponent() {
+        Disposer.register(myProject, disposable)
+
+        myProject.getMessageBus().connect(disposable).subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, object : FileEditorManagerAdapter() {
+            override fun selectionChanged(event: FileEditorManagerEvent) = scheduleAnalysis()
+        })
+
+        // The multicaster reports changes of documents in all open projects
+        val fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex()
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(object : DocumentAdapter() {
+            override fun documentChanged(event: DocumentEvent) {
+                val file = FileDocumentManager.getInstance().getFile(event.getDocument()) ?: return
+                if (file.getFileType() != JetFileType.INSTANCE || !fileIndex.isInContent(file)) return
+
+                recentlyEditedFiles.remove(file)
+                recentlyEditedFiles.add(file)
+                if (recentlyEditedFiles.size() > MAX_ANALYZED_FILES) {
+                    recentlyEditedFiles.remove(recentlyEditedFiles.first())
+                }
+                scheduleAnalysis()
+            }
+        }, disposable)
+    }
+
+    override fun disposeComponent() {
+        Disposer.dispose(disposable)
+        runningIndicators.forEach { it.cancel() }
+        executor.shutdownNow()
+    }
+
+    protected open fun analyze(file: JetFile) {
+        file.analyzeFullyAndGetResult()
+    }
+
+    private fun scheduleAnalysis() {
+        runningIndicators.forEach { it.cancel() }
+        runningIndicators.clear()
+
+        // Requests overtaken by a later change are dropped when the documents get committed
+        val request = ++analysisRequest
+        alarm.cancelAllRequests()
+        alarm.addRequest({
+            PsiDocumentManager.getInstance(myProject).performWhenAllCommitted {
+                if (request == analysisRequest) startAnalysis()
+            }
+        }, ANALYSIS_DELAY_MS)
+    }
+
+    private fun startAnalysis() {
+        if (myProject.isDisposed() || executor.isShutdown() || DumbService.isDumb(myProject)) return
+
+        for (file in collectFilesToAnalyze()) {
+            val indicator = ProgressIndicatorBase()
+            runningIndicators.add(indicator)
+            executor.execute {
+                if (!indicator.isCanceled()) {
+                    try {
+                        LongRunningReadTask.runWithWriteActionPriority(indicator) {
+                            if (file.isValid()) {
+                                analyze(file)
+                            }
+                        }
+                    }
+                    catch (e: ProcessCanceledException) {
+                        // a write action has started, the files will be analyzed after the next change
+                    }
+                    catch (e: IndexNotReadyException) {
+                        // dumb mode has started
+                    }
+                }
+            }
+        }
+    }
+
+    // The file with the caret goes first. The number of files is bounded by the size of the analysis cache in KotlinResolveCache,
+    // which would evict the results otherwise
+    private fun collectFilesToAnalyze(): List<JetFile> {
+        val editorManager = FileEditorManager.getInstance(myProject)
+
+        val virtualFiles = LinkedHashSet<VirtualFile>()
+        val selectedDocument = editorManager.getSelectedTextEditor()?.getDocument()
+        if (selectedDocument != null) {
+            FileDocumentManager.getInstance().getFile(selectedDocument)?.let { virtualFiles.add(it) }
+        }
+        virtualFiles.addAll(recentlyEditedFiles.reverse())
+
+        val psiManager = PsiManager.getInstance(myProject)
+        return virtualFiles
+                .filter { it.isValid() }
+                .map { psiManager.findFile(it) as? JetFile }
+                .filterNotNull()
+                .filter { ProjectRootsUtil.isInProjectSource(it) }
+                .take(MAX_ANALYZED_FILES)
+    }
+
+    companion object {
+        private val ANALYSIS_DELAY_MS = 300
+        private val MAX_ANALYZED_FILES = 2
+    }
+}
@@ -29,7 +29,9 @@ import org.jetbrains.kotlin.resolve.scopes.receivers.ExpressionReceiver
 import org.jetbrains.kotlin.resolve.bindingContextUtil.getDataFlowInfo
 import org.jetbrains.kotlin.resolve.QualifiedExpressionResolver.LookupMode
 import org.jetbrains.kotlin.resolve.scopes.receivers.ReceiverValue
-import org.jetbrains.kotlin.resolve.calls.smartcasts.DataFlowInfo
+import org.jetbrains.kotlin.resolve.calls.smartcasts.SmartCastUtils
+import org.jetbrains.kotlin.types.JetType
+import org.jetbrains.kotlin.types.TypeUtils
 import com.intellij.psi.stubs.StringStubIndexExtension
 import org.jetbrains.kotlin.idea.caches.resolve.ResolutionFacade
 import org.jetbrains.kotlin.idea.util.substituteExtensionIfCallable
@@ -79,70 +81,73 @@ public class KotlinIndicesHelper(
     public fun getCallableExtensions(nameFilter: (String) -> Boolean, expression: JetSimpleNameExpression): Collection<CallableDescriptor> {
         val dataFlowInfo = bindingContext.getDataFlowInfo(expression)
 
-        val functionsIndex = JetTopLevelFunctionFqnNameIndex.getInstance()
-        val propertiesIndex = JetTopLevelPropertyFqnNameIndex.getInstance()
-
-        val sourceFunctionNames = functionsIndex.getAllKeys(project).stream().map { FqName(it) }
-        val sourcePropertyNames = propertiesIndex.getAllKeys(project).stream().map { FqName(it) }
-
-        val result = HashSet<CallableDescriptor>()
-        result.fqNamesToSuitableExtensions(sourceFunctionNames, nameFilter, functionsIndex, expression, bindingContext, dataFlowInfo)
-        result.fqNamesToSuitableExtensions(sourcePropertyNames, nameFilter, propertiesIndex, expression, bindingContext, dataFlowInfo)
-        return result
-    }
-
-    private fun MutableCollection<CallableDescriptor>.fqNamesToSuitableExtensions(
-            fqNames: Stream<FqName>,
-            nameFilter: (String) -> Boolean,
-            index: StringStubIndexExtension<out JetCallableDeclaration>,
-            expression: JetSimpleNameExpression,
-            bindingContext: BindingContext,
-            dataFlowInfo: DataFlowInfo) {
-        val matchingNames = fqNames.filter { nameFilter(it.shortName().asString()) }
-
+        val receiverValues: List<ReceiverValue>
+        val callType: CallType
         val receiverPair = ReferenceVariantsHelper.getExplicitReceiverData(expression)
         if (receiverPair != null) {
-            val (receiverExpression, callType) = receiverPair
+            val (receiverExpression, explicitCallType) = receiverPair
 
             val expressionType = bindingContext[BindingContext.EXPRESSION_TYPE, receiverExpression]
-            if (expressionType == null || expressionType.isError()) return
-
-            val receiverValue = ExpressionReceiver(receiverExpression, expressionType)
+            if (expressionType == null || expressionType.isError()) return listOf()
 
-            matchingNames.flatMapTo(this) {
-                findSuitableExtensions(it, index, receiverValue, dataFlowInfo, callType, bindingContext)
-            }
+            receiverValues = listOf(ExpressionReceiver(receiverExpression, expressionType))
+            callType = explicitCallType
         }
         else {
-            val resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, expression] ?: return
+            val resolutionScope = bindingContext[BindingContext.RESOLUTION_SCOPE, expression] ?: return listOf()
+
+            receiverValues = resolutionScope.getImplicitReceiversWithInstance().map { it.getValue() }
+            callType = CallType.NORMAL
+        }
 
-            for (receiver in resolutionScope.getImplicitReceiversWithInstance()) {
-                matchingNames.flatMapTo(this) {
-                    findSuitableExtensions(it, index, receiver.getValue(), dataFlowInfo, CallType.NORMAL, bindingContext)
-                }
+        val receiverTypeNames = HashSet<String>()
+        receiverTypeNames.add(JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY)
+        for (receiverValue in receiverValues) {
+            SmartCastUtils.getSmartCastVariants(receiverValue, bindingContext, dataFlowInfo).forEach { receiverTypeNames.addTypeNames(it) }
+        }
+
+        val index = JetTopLevelExtensionsByReceiverTypeIndex.getInstance()
+        val declarationsByFqName = receiverTypeNames
+                .flatMap { index.get(it, project, scope) }
+                .filter { it.getName()?.let(nameFilter) ?: false }
+                .groupBy { it.getFqName() }
+
+        val result = HashSet<CallableDescriptor>()
+        for ((fqName, declarations) in declarationsByFqName) {
+            if (fqName == null) continue
+            val descriptors = findExtensions(fqName, declarations)
+            for (receiverValue in receiverValues) {
+                descriptors.flatMapTo(result) { it.substituteExtensionIfCallable(receiverValue, callType, bindingContext, dataFlowInfo) }
             }
         }
+        return result
     }
 
     /**
-     * Check that function or property with the given qualified name can be resolved in given scope and called on given receiver
+     * Adds short names of the type constructor of [type] and of all its supertypes,
+     * which are the keys the extensions applicable to this type are stored under in [JetTopLevelExtensionsByReceiverTypeIndex]
      */
-    private fun findSuitableExtensions(callableFQN: FqName,
-                                       index: StringStubIndexExtension<out JetCallableDeclaration>,
-                                       receiverValue: ReceiverValue,
-                                       dataFlowInfo: DataFlowInfo,
-                                       callType: CallType,
-                                       bindingContext: BindingContext): Stream<CallableDescriptor> {
-        val extensions = index.get(callableFQN.asString(), project, scope).filter { it.getReceiverTypeReference() != null }
+    private fun MutableSet<String>.addTypeNames(type: JetType) {
+        val descriptor = type.getConstructor().getDeclarationDescriptor()
+        if (descriptor != null) {
+            add(descriptor.getName().asString())
+        }
+        TypeUtils.getAllSupertypes(type).forEach {
+            val supertypeDescriptor = it.getConstructor().getDeclarationDescriptor()
+            if (supertypeDescriptor != null) {
+                add(supertypeDescriptor.getName().asString())
+            }
+        }
+    }
+
+    private fun findExtensions(callableFQN: FqName, extensions: Collection<JetCallableDeclaration>): Collection<CallableDescriptor> {
         val descriptors = if (extensions.any { it.getContainingJetFile().isCompiled() } ) {
             analyzeImportReference(callableFQN)
                     .filterIsInstance<CallableDescriptor>()
                     .filter { it.getExtensionReceiverParameter() != null }
         }
         else extensions.map { resolutionFacade.resolveToDescriptor(it) as CallableDescriptor }
-        return descriptors.stream()
-                .filter(visibilityFilter)
-                .flatMap { it.substituteExtensionIfCallable(receiverValue, callType, bindingContext, dataFlowInfo).stream() }
+        return descriptors.filter(visibilityFilter)
     }
 
     public fun getClassDescriptors(nameFilter: (String) -> Boolean, kindFilter: (ClassKind) -> Boolean): Collection<ClassDescriptor> {
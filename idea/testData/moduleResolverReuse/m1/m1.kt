@@ -0,0 +1,5 @@
+package m1
+
+public open class BaseInM1 {
+    public fun baseFun(): Int = 1
+}
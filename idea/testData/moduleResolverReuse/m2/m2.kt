@@ -0,0 +1,7 @@
+package m2
+
+import m1.BaseInM1
+
+public class DerivedInM2 : BaseInM1() {
+    public fun derivedFun(): Int = baseFun() + 1
+}
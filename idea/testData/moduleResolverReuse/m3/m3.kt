@@ -0,0 +1,5 @@
+package m3
+
+import m2.DerivedInM2
+
+public fun useM2(): Int = DerivedInM2().derivedFun()
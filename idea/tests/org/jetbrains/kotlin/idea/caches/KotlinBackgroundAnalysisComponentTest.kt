@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.idea.caches
+
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.util.ui.UIUtil
+import org.jetbrains.kotlin.idea.JetLightCodeInsightFixtureTestCase
+import org.jetbrains.kotlin.idea.JetLightProjectDescriptor
+import org.jetbrains.kotlin.psi.JetFile
+import java.util.ArrayList
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+public class KotlinBackgroundAnalysisComponentTest : JetLightCodeInsightFixtureTestCase() {
+    override fun getProjectDescriptor() = JetLightProjectDescriptor.INSTANCE
+
+    public fun testChangesAreAnalyzedOnceAfterCommit() {
+        myFixture.configureByText("changed.kt", "fun foo() {<caret>}")
+
+        val analyzedFiles = Collections.synchronizedList(ArrayList<String>())
+        val component = object : KotlinBackgroundAnalysisComponent(getProject()) {
+            override fun analyze(file: JetFile) {
+                analyzedFiles.add(file.getName())
+            }
+        }
+        component.initComponent()
+        try {
+            myFixture.type("1")
+            myFixture.type("2")
+            myFixture.type("3")
+            PsiDocumentManager.getInstance(getProject()).commitAllDocuments()
+
+            waitFor { analyzedFiles.isNotEmpty() }
+            // no other analysis is started for the earlier changes
+            dispatchEventsFor(SETTLE_TIME_MS)
+            assertEquals(listOf("changed.kt"), ArrayList(analyzedFiles))
+        }
+        finally {
+            component.disposeComponent()
+        }
+    }
+
+    public fun testRunningAnalysisIsCancelledByNextChange() {
+        myFixture.configureByText("cancelled.kt", "fun foo() {<caret>}")
+
+        val started = CountDownLatch(1)
+        val cancelled = CountDownLatch(1)
+        val component = object : KotlinBackgroundAnalysisComponent(getProject()) {
+            override fun analyze(file: JetFile) {
+                started.countDown()
+                try {
+                    while (true) {
+                        ProgressManager.checkCanceled()
+                        Thread.sleep(10)
+                    }
+                }
+                catch (e: ProcessCanceledException) {
+                    cancelled.countDown()
+                    throw e
+                }
+            }
+        }
+        component.initComponent()
+        try {
+            myFixture.type("1")
+            PsiDocumentManager.getInstance(getProject()).commitAllDocuments()
+            waitFor { started.getCount() == 0L }
+
+            myFixture.type("2")
+            assertTrue("Analysis should be cancelled by the next change", cancelled.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        }
+        finally {
+            component.disposeComponent()
+        }
+    }
+
+    // The analysis is scheduled on the event dispatch thread, which is the test thread here
+    private fun waitFor(condition: () -> Boolean) {
+        val deadline = System.currentTimeMillis() + TIMEOUT_MS
+        while (!condition()) {
+            assertTrue("Background analysis didn't start in time", System.currentTimeMillis() < deadline)
+            dispatchEventsFor(10)
+        }
+    }
+
+    private fun dispatchEventsFor(millis: Long) {
+        val end = System.currentTimeMillis() + millis
+        do {
+            UIUtil.dispatchAllInvocationEvents()
+            Thread.sleep(10)
+        }
+        while (System.currentTimeMillis() < end)
+    }
+
+    companion object {
+        private val TIMEOUT_MS = 10000L
+        private val SETTLE_TIME_MS = 1000L
+    }
+}
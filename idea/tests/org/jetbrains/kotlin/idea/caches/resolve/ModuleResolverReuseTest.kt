@@ -0,0 +1,102 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.idea.caches.resolve
+
+import com.intellij.codeInsight.daemon.DaemonAnalyzerTestCase
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.module.StdModuleTypes
+import com.intellij.openapi.roots.ModuleRootModificationUtil
+import com.intellij.psi.PsiDocumentManager
+import org.jetbrains.kotlin.idea.PluginTestCaseBase
+import org.jetbrains.kotlin.idea.project.PluginJetFilesProvider
+import org.jetbrains.kotlin.psi.JetFile
+
+class ModuleResolverReuseTest : DaemonAnalyzerTestCase() {
+
+    private val TEST_DATA_PATH = PluginTestCaseBase.getTestDataPathBase() + "/moduleResolverReuse/"
+
+    fun testResolverOfUnmodifiedModuleIsReused() {
+        val (file1, file2) = setUpModules()
+        val session1 = analyzeAndGetSession(file1)
+        val session2 = analyzeAndGetSession(file2)
+
+        // m1 doesn't depend on m2, so its declarations can't be affected by the change
+        file2.addTopLevelFunction()
+
+        assertSame(session1, analyzeAndGetSession(file1))
+        assertNotSame(session2, analyzeAndGetSession(file2))
+    }
+
+    fun testResolversOfModifiedModuleAndDependentsAreInvalidated() {
+        val (file1, file2) = setUpModules()
+        val session1 = analyzeAndGetSession(file1)
+        val session2 = analyzeAndGetSession(file2)
+
+        file1.addTopLevelFunction()
+
+        assertNotSame(session1, analyzeAndGetSession(file1))
+        assertNotSame(session2, analyzeAndGetSession(file2))
+    }
+
+    fun testResolversOfTransitiveDependentsAreInvalidated() {
+        val (file1, file2, file3) = setUpModules()
+        val session2 = analyzeAndGetSession(file2)
+        val session3 = analyzeAndGetSession(file3)
+
+        // m3 depends on m1 only through m2, the dependencies are not exported
+        file1.addTopLevelFunction()
+
+        assertNotSame(session2, analyzeAndGetSession(file2))
+        assertNotSame(session3, analyzeAndGetSession(file3))
+    }
+
+    private fun setUpModules(): Triple<JetFile, JetFile, JetFile> {
+        val module1 = module("m1")
+        val module2 = module("m2")
+        val module3 = module("m3")
+        ModuleRootModificationUtil.addDependency(module2, module1)
+        ModuleRootModificationUtil.addDependency(module3, module2)
+
+        val files = PluginJetFilesProvider.allFilesInProject(myProject!!)
+        return Triple(
+                files.single { it.getName() == "m1.kt" },
+                files.single { it.getName() == "m2.kt" },
+                files.single { it.getName() == "m3.kt" }
+        )
+    }
+
+    private fun analyzeAndGetSession(file: JetFile): Any {
+        file.analyzeFullyAndGetResult()
+        return KotlinCacheService.getInstance(myProject!!).getLazyResolveSession(file)
+    }
+
+    private fun JetFile.addTopLevelFunction() {
+        val documentManager = PsiDocumentManager.getInstance(myProject!!)
+        val document = documentManager.getDocument(this)!!
+        object : WriteCommandAction.Simple<Unit>(myProject) {
+            override fun run() {
+                document.insertString(document.getTextLength(), "\nfun addedFun() {}\n")
+                documentManager.commitDocument(document)
+            }
+        }.execute().throwException()
+    }
+
+    private fun module(name: String): Module {
+        return createModuleFromTestData(TEST_DATA_PATH + name, name, StdModuleTypes.JAVA, true)!!
+    }
+}
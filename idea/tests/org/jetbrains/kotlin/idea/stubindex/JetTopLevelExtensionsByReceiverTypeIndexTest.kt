@@ -0,0 +1,60 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.idea.stubindex
+
+import com.intellij.psi.search.GlobalSearchScope
+import org.jetbrains.kotlin.idea.JetLightCodeInsightFixtureTestCase
+import org.jetbrains.kotlin.idea.JetLightProjectDescriptor
+
+public class JetTopLevelExtensionsByReceiverTypeIndexTest : JetLightCodeInsightFixtureTestCase() {
+    override fun getProjectDescriptor() = JetLightProjectDescriptor.INSTANCE
+
+    public fun testReceiverTypeNames() {
+        myFixture.addFileToProject("a/Foo.kt", "package a\n\nclass Foo\n")
+        myFixture.configureByText("extensions.kt", """
+package b
+
+import a.Foo as Bar
+
+fun Bar.aliased() {}
+val Bar?.nullableAliased: Int get() = 1
+fun String?.nullable() {}
+fun a.Foo.qualified() {}
+fun <T> T.typeParameter() {}
+val <T : CharSequence> T.boundedTypeParameter: Int get() = 1
+fun (() -> Unit).functionType() {}
+
+class Local {
+    fun Bar.member() {}
+}
+""")
+
+        // The alias is indexed as written and by the name of the imported class
+        assertEquals(listOf("aliased", "nullableAliased", "qualified"), extensionsOf("Foo"))
+        assertEquals(listOf("aliased", "nullableAliased"), extensionsOf("Bar"))
+        assertEquals(listOf("nullable"), extensionsOf("String"))
+        assertEquals(listOf("boundedTypeParameter", "functionType", "typeParameter"),
+                     extensionsOf(JetTopLevelExtensionsByReceiverTypeIndex.ANY_RECEIVER_KEY))
+    }
+
+    private fun extensionsOf(receiverTypeName: String): List<String> {
+        return JetTopLevelExtensionsByReceiverTypeIndex.getInstance()
+                .get(receiverTypeName, getProject(), GlobalSearchScope.allScope(getProject()))
+                .map { it.getName()!! }
+                .sort()
+    }
+}
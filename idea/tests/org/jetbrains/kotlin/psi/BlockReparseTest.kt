@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.psi
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.impl.DebugUtil
+import com.intellij.psi.tree.IReparseableElementType
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.JetNodeTypes
+import org.jetbrains.kotlin.idea.JetFileType
+import org.jetbrains.kotlin.idea.JetLanguage
+import org.jetbrains.kotlin.idea.JetLightCodeInsightFixtureTestCase
+import org.jetbrains.kotlin.idea.JetLightProjectDescriptor
+
+public class BlockReparseTest : JetLightCodeInsightFixtureTestCase() {
+    override fun getProjectDescriptor() = JetLightProjectDescriptor.INSTANCE
+
+    public fun testEditInFunctionBodyReparsesOnlyTheBody() {
+        val file = configure("fun foo() {\n    val x = 1<caret>\n}\n\nfun bar() {}\n")
+        val fooBody = file.getFunction(0).getBodyExpression()!!
+        val bar = file.getFunction(1)
+        val barBody = bar.getBodyExpression()!!
+
+        val inserted = "\n    println(x)"
+        val fooBodyRange = fooBody.getTextRange()
+        insertAtCaret(inserted)
+
+        assertTrue(isParsable(fooBodyRange.grown(inserted.length())))
+        assertSame(fooBody, file.getFunction(0).getBodyExpression())
+        assertSame(bar, file.getFunction(1))
+        assertSame(barBody, bar.getBodyExpression())
+        assertTrue(barBody.isValid())
+        checkTreeIsConsistent(file)
+    }
+
+    public fun testUnbalancedBracesInFunctionBodyReparseWholeFile() {
+        val file = configure("fun foo() {\n    val x = 1<caret>\n}\n\nfun bar() {}\n")
+        val foo = file.getFunction(0)
+        val bar = file.getFunction(1)
+        val barBody = bar.getBodyExpression()!!
+
+        val inserted = "\n    if (x > 0) {"
+        val fooBodyRange = foo.getBodyExpression()!!.getTextRange()
+        insertAtCaret(inserted)
+
+        assertFalse(isParsable(fooBodyRange.grown(inserted.length())))
+        // bar() is inside the body of foo() now, so its body is a new element
+        assertEquals(1, file.getDeclarations().size())
+        val nestedBar = PsiTreeUtil.findChildrenOfType(file.getFunction(0), javaClass<JetNamedFunction>()).single { it.getName() == "bar" }
+        assertNotSame(bar, nestedBar)
+        assertNotSame(barBody, nestedBar.getBodyExpression())
+        checkTreeIsConsistent(file)
+    }
+
+    public fun testEditInNestedFunctionLiteral() {
+        val file = configure("fun foo() {\n    run {\n        { 1<caret> }\n    }\n}\n\nfun bar() {}\n")
+        val fooBody = file.getFunction(0).getBodyExpression()!!
+        val run = fooBody.getStatements().single() as JetCallExpression
+        val innerLiteral = run.getFunctionLiteralArguments().single().getFunctionLiteral()
+                .getBodyExpression().getStatements().single() as JetFunctionLiteralExpression
+        val barBody = file.getFunction(1).getBodyExpression()!!
+
+        val inserted = " + 2"
+        val innerLiteralBodyRange = innerLiteral.getBodyExpression().getTextRange()
+        val fooBodyRange = fooBody.getTextRange()
+        insertAtCaret(inserted)
+
+        // Function literal bodies have no braces, so the closest block reparsed on its own is the body of foo()
+        assertFalse(isParsable(innerLiteralBodyRange.grown(inserted.length())))
+        assertTrue(isParsable(fooBodyRange.grown(inserted.length())))
+        assertSame(fooBody, file.getFunction(0).getBodyExpression())
+        assertSame(barBody, file.getFunction(1).getBodyExpression())
+        assertTrue(barBody.isValid())
+        checkTreeIsConsistent(file)
+    }
+
+    public fun testParametersInControlStructureBody() {
+        val file = configure("fun foo() {\n    if (true) {<caret> bar() }\n}\n\nfun bar() {}\n")
+        val fooBody = file.getFunction(0).getBodyExpression()!!
+        val ifBody = (fooBody.getStatements().single() as JetIfExpression).getThen() as JetBlockExpression
+        val barBody = file.getFunction(1).getBodyExpression()!!
+
+        val inserted = " a ->"
+        val ifBodyRange = ifBody.getTextRange()
+        val fooBodyRange = fooBody.getTextRange()
+        insertAtCaret(inserted)
+
+        // The block becomes a function literal, so the body of foo() is reparsed instead
+        assertFalse(isParsable(ifBodyRange.grown(inserted.length())))
+        assertTrue(isParsable(fooBodyRange.grown(inserted.length())))
+        assertFalse(ifBody.isValid())
+        assertTrue((fooBody.getStatements().single() as JetIfExpression).getThen() is JetFunctionLiteralExpression)
+        assertSame(fooBody, file.getFunction(0).getBodyExpression())
+        assertSame(barBody, file.getFunction(1).getBodyExpression())
+        checkTreeIsConsistent(file)
+    }
+
+    private fun configure(text: String): JetFile {
+        return myFixture.configureByText("reparse.kt", text) as JetFile
+    }
+
+    private fun JetFile.getFunction(index: Int) = getDeclarations()[index] as JetNamedFunction
+
+    private fun insertAtCaret(text: String) {
+        val document = myFixture.getEditor().getDocument()
+        val offset = myFixture.getEditor().getCaretModel().getOffset()
+        object : WriteCommandAction.Simple<Unit>(getProject()) {
+            override fun run() {
+                document.insertString(offset, text)
+            }
+        }.execute().throwException()
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document)
+    }
+
+    private fun isParsable(blockRange: TextRange): Boolean {
+        val blockText = myFixture.getEditor().getDocument().getText(blockRange)
+        return (JetNodeTypes.BLOCK as IReparseableElementType).isParsable(blockText, JetLanguage.INSTANCE, getProject())
+    }
+
+    private fun checkTreeIsConsistent(file: JetFile) {
+        val parsedFile = PsiFileFactory.getInstance(getProject()).createFileFromText(file.getName(), JetFileType.INSTANCE, file.getText())
+        assertEquals(DebugUtil.psiToString(parsedFile, false), DebugUtil.psiToString(file, false))
+    }
+}
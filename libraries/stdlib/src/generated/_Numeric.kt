@@ -9,6 +9,402 @@ import java.util.*
 
 import java.util.Collections // TODO: it's temporary while we have java.util.Collections in js
 
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Iterable<Int>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Sequence<Int>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+
+deprecated("Migrate to using Sequence<T> and respective functions")
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Stream<Int>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Iterable<Long>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Sequence<Long>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+
+deprecated("Migrate to using Sequence<T> and respective functions")
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Stream<Long>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Iterable<Double>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Sequence<Double>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+
+deprecated("Migrate to using Sequence<T> and respective functions")
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Stream<Double>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Iterable<Float>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Sequence<Float>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+
+deprecated("Migrate to using Sequence<T> and respective functions")
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Stream<Float>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Int>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun IntArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Long>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun LongArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Byte>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun ByteArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Short>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun ShortArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Double>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun DoubleArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun Array<out Float>.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun FloatArray.average(): Double {
+    val iterator = iterator()
+    var sum: Double = 0.0
+    var count: Int = 0
+    while (iterator.hasNext()) {
+        sum += iterator.next()
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun IntRange.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun IntProgression.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun LongRange.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
+/**
+ * Returns an average value of elements in the collection, or NaN if the collection is empty
+ */
+public fun LongProgression.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) Double.NaN else sum / count
+}
+
 /**
  * Returns the sum of all elements in the collection
  */
@@ -305,3 +701,47 @@ public fun FloatArray.sum(): Float {
     return sum
 }
 
+/**
+ * Returns the sum of all elements in the collection
+ */
+public fun IntRange.sum(): Int {
+    var sum: Int = 0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns the sum of all elements in the collection
+ */
+public fun IntProgression.sum(): Int {
+    var sum: Int = 0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns the sum of all elements in the collection
+ */
+public fun LongRange.sum(): Long {
+    var sum: Long = 0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns the sum of all elements in the collection
+ */
+public fun LongProgression.sum(): Long {
+    var sum: Long = 0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
@@ -0,0 +1,269 @@
+package kotlin
+
+import java.util.AbstractList
+import java.util.ArrayList
+import java.util.NoSuchElementException
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadFactory
+import kotlin.properties.*
+
+/** Marks an element rejected by one of the fused `filter` stages of a [ParallelSequence]. */
+private object SKIPPED
+
+private val DEFAULT_CHUNK_SIZE = 1024
+
+private val defaultParallelExecutor: ExecutorService by Delegates.lazy {
+    Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), object : ThreadFactory {
+        override fun newThread(r: Runnable): Thread {
+            val thread = Thread(r, "kotlin-parallel-sequence")
+            thread.setDaemon(true)
+            return thread
+        }
+    })
+}
+
+/**
+ * A sequence over a random-access [source] whose `map` and `filter` stages are fused into a single function,
+ * so that every element passes through all of them in one loop instead of a chain of iterators.
+ *
+ * The terminal operations declared in this class split the source into chunks of `chunkSize` elements and
+ * process the chunks on the given executor, so the functions passed to the stages must be safe to call
+ * from several threads at once. Iterating the sequence, as well as any other operation, processes it
+ * sequentially on the calling thread.
+ *
+ * The tasks are submitted to the executor and awaited by the calling thread, so parallel operations should not
+ * be started from a task which is itself running on the same bounded executor.
+ */
+public class ParallelSequence<T> private (private val source: List<Any?>,
+                                          private val stage: ((Any?) -> Any?)?,
+                                          private val executor: ExecutorService,
+                                          private val chunkSize: Int
+                                         ) : Sequence<T> {
+    companion object {
+        fun <T> create(source: List<T>, executor: ExecutorService, chunkSize: Int): ParallelSequence<T> {
+            require(chunkSize > 0, "chunkSize should be positive, but is $chunkSize")
+            return ParallelSequence(source, null, executor, chunkSize)
+        }
+    }
+
+    private fun <R> then(next: (Any?) -> Any?): ParallelSequence<R> {
+        val previous = stage
+        if (previous == null)
+            return ParallelSequence(source, next, executor, chunkSize)
+
+        val fused: (Any?) -> Any? = {
+            val value = previous(it)
+            if (value === SKIPPED) SKIPPED else next(value)
+        }
+        return ParallelSequence(source, fused, executor, chunkSize)
+    }
+
+    /**
+     * Returns a sequence containing the results of applying the given [transform] function to each element.
+     */
+    public fun <R> map(transform: (T) -> R): ParallelSequence<R> = then { transform(it as T) }
+
+    /**
+     * Returns a sequence containing all elements matching the given [predicate].
+     */
+    public fun filter(predicate: (T) -> Boolean): ParallelSequence<T> = then { if (predicate(it as T)) it else SKIPPED }
+
+    /**
+     * Returns a sequence containing all elements not matching the given [predicate].
+     */
+    public fun filterNot(predicate: (T) -> Boolean): ParallelSequence<T> = then { if (predicate(it as T)) SKIPPED else it }
+
+    private inline fun forEachInChunk(from: Int, to: Int, action: (T) -> Unit) {
+        val stage = stage
+        for (index in from..to - 1) {
+            val element = source[index]
+            val value = if (stage == null) element else stage(element)
+            if (value !== SKIPPED)
+                action(value as T)
+        }
+    }
+
+    private fun <C> mapChunks(chunkAction: (Int, Int) -> C): List<C> {
+        val size = source.size()
+        if (size <= chunkSize)
+            return listOf(chunkAction(0, size))
+
+        val futures = ArrayList<Future<C>>((size + chunkSize - 1) / chunkSize)
+        try {
+            var from = 0
+            while (from < size) {
+                val start = from
+                val end = Math.min(size, start + chunkSize)
+                futures.add(executor.submit(Callable<C> { chunkAction(start, end) }))
+                from = end
+            }
+            val results = ArrayList<C>(futures.size())
+            for (future in futures) {
+                try {
+                    results.add(future.get())
+                }
+                catch (e: ExecutionException) {
+                    throw e.getCause() ?: e
+                }
+            }
+            return results
+        }
+        finally {
+            for (future in futures) {
+                future.cancel(false)
+            }
+        }
+    }
+
+    /**
+     * Returns a list containing all elements of this sequence in the order of the source.
+     * The chunks are processed in parallel.
+     */
+    public fun toList(): List<T> {
+        val chunks = mapChunks { from, to ->
+            val chunk = ArrayList<T>(to - from)
+            forEachInChunk(from, to) { chunk.add(it) }
+            chunk
+        }
+        if (chunks.size() == 1)
+            return chunks[0]
+
+        val result = ArrayList<T>(chunks.fold(0) { size, chunk -> size + chunk.size() })
+        for (chunk in chunks) {
+            result.addAll(chunk)
+        }
+        return result
+    }
+
+    /**
+     * Performs the given [operation] on each element. The chunks are processed in parallel, so the operation
+     * is invoked concurrently and in no particular order.
+     */
+    public fun forEach(operation: (T) -> Unit) {
+        mapChunks { from, to -> forEachInChunk(from, to, operation) }
+    }
+
+    /**
+     * Returns the number of elements in this sequence. The chunks are processed in parallel.
+     */
+    public fun count(): Int {
+        return mapChunks { from, to ->
+            var count = 0
+            forEachInChunk(from, to) { count++ }
+            count
+        }.fold(0) { total, count -> total + count }
+    }
+
+    /**
+     * Accumulates value starting with the first element and applying [operation] from left to right
+     * to the current accumulator value and each element. The chunks are reduced in parallel and their results are
+     * combined with the same [operation] in the order of the source, so it must be associative.
+     */
+    public fun reduce(operation: (T, T) -> T): T {
+        var accumulator: Any? = SKIPPED
+        for (chunkResult in mapChunks { from, to -> reduceChunk(from, to, operation) }) {
+            if (chunkResult === SKIPPED) continue
+            accumulator = if (accumulator === SKIPPED) chunkResult else operation(accumulator as T, chunkResult as T)
+        }
+        if (accumulator === SKIPPED) throw UnsupportedOperationException("Empty iterable can't be reduced")
+        return accumulator as T
+    }
+
+    private fun reduceChunk(from: Int, to: Int, operation: (T, T) -> T): Any? {
+        var accumulator: Any? = SKIPPED
+        forEachInChunk(from, to) {
+            accumulator = if (accumulator === SKIPPED) it else operation(accumulator as T, it)
+        }
+        return accumulator
+    }
+
+    override fun iterator(): Iterator<T> = object : Iterator<T> {
+        var index = 0
+        var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+        var nextItem: Any? = null
+
+        private fun calcNext() {
+            val stage = stage
+            while (index < source.size()) {
+                val element = source[index++]
+                val value = if (stage == null) element else stage(element)
+                if (value !== SKIPPED) {
+                    nextItem = value
+                    nextState = 1
+                    return
+                }
+            }
+            nextState = 0
+        }
+
+        override fun next(): T {
+            if (nextState == -1)
+                calcNext()
+            if (nextState == 0)
+                throw NoSuchElementException()
+            val result = nextItem
+            nextItem = null
+            nextState = -1
+            return result as T
+        }
+
+        override fun hasNext(): Boolean {
+            if (nextState == -1)
+                calcNext()
+            return nextState == 1
+        }
+    }
+}
+
+/**
+ * Returns a [ParallelSequence] over the elements of this list, which should support fast random access.
+ * Terminal operations of the returned sequence process chunks of [chunkSize] elements on the given [executor],
+ * by default a shared pool with a thread per available processor.
+ */
+public fun <T> List<T>.parallelSequence(executor: ExecutorService = defaultParallelExecutor,
+                                        chunkSize: Int = DEFAULT_CHUNK_SIZE): ParallelSequence<T> {
+    return ParallelSequence.create(this, executor, chunkSize)
+}
+
+/**
+ * Returns a [ParallelSequence] over the elements of this array.
+ * Terminal operations of the returned sequence process chunks of [chunkSize] elements on the given [executor],
+ * by default a shared pool with a thread per available processor.
+ */
+public fun <T> Array<out T>.parallelSequence(executor: ExecutorService = defaultParallelExecutor,
+                                             chunkSize: Int = DEFAULT_CHUNK_SIZE): ParallelSequence<T> {
+    return ParallelSequence.create(asList(), executor, chunkSize)
+}
+
+/**
+ * Returns a [ParallelSequence] over the values of this range, which are computed on demand and not stored.
+ * Terminal operations of the returned sequence process chunks of [chunkSize] values on the given [executor],
+ * by default a shared pool with a thread per available processor.
+ */
+public fun IntRange.parallelSequence(executor: ExecutorService = defaultParallelExecutor,
+                                     chunkSize: Int = DEFAULT_CHUNK_SIZE): ParallelSequence<Int> {
+    return ParallelSequence.create(IntRangeList(start, end), executor, chunkSize)
+}
+
+private class IntRangeList(private val start: Int, private val end: Int) : AbstractList<Int>() {
+    private val valueCount: Int
+
+    init {
+        val count = if (start > end) 0L else end.toLong() - start.toLong() + 1
+        if (count > Int.MAX_VALUE)
+            throw IllegalArgumentException("Range $start..$end has $count values, which is more than a list can contain")
+        valueCount = count.toInt()
+    }
+
+    override fun size(): Int = valueCount
+
+    override fun get(index: Int): Int {
+        if (index < 0 || index >= size())
+            throw IndexOutOfBoundsException("Index $index is out of range $start..$end")
+        return start + index
+    }
+}
@@ -0,0 +1,169 @@
+package kotlin.io
+
+import java.io.*
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.Charset
+import java.util.ArrayList
+
+/**
+ * Returns the default size of a region mapped into memory by [forEachMappedBlock] and [mappedLines]
+ */
+public val defaultMappedBlockSize: Int = 64 * 1024 * 1024
+
+/**
+ * Maps this file into memory by regions of [blockSize] bytes and calls [operation] for each region.
+ * This function passes a read-only [ByteBuffer] positioned at the start of the region to the [operation] function.
+ * The buffer is only valid until [operation] returns.
+ *
+ * Unlike [forEachBlock], the content of the file is not copied into an intermediate byte array,
+ * so you may prefer this function for huge files.
+ *
+ * @param operation function to process file regions
+ * @param blockSize size of a mapped region, 64 megabytes by default
+ */
+public fun File.forEachMappedBlock(operation: (ByteBuffer) -> Unit, blockSize: Int = defaultMappedBlockSize): Unit {
+    forEachMappedRegion(blockSize, operation)
+}
+
+/**
+ * Returns a sequence of the lines of this file, decoded using the specified [charset] directly from
+ * the file content mapped into memory. Default charset is UTF-8.
+ *
+ * The file is mapped when this function is called and is not kept open afterwards,
+ * so unlike [BufferedReader.lines] the returned sequence doesn't need to be closed.
+ *
+ * @param charset character set to use
+ * @param blockSize size of a mapped region, 64 megabytes by default
+ * @return a sequence of file lines
+ */
+public fun File.mappedLines(charset: Charset = Charsets.UTF_8, blockSize: Int = defaultMappedBlockSize): Sequence<String> {
+    val regions = ArrayList<MappedByteBuffer>()
+    forEachMappedRegion(blockSize) { regions.add(it) }
+    return object : Sequence<String> {
+        override fun iterator(): Iterator<String> {
+            val buffers = regions.map { it.duplicate() }
+            return ByteBuffersInputStream(buffers).reader(charset).buffered().lines().iterator()
+        }
+    }
+}
+
+private inline fun File.forEachMappedRegion(blockSize: Int, operation: (MappedByteBuffer) -> Unit) {
+    require(blockSize > 0, "blockSize should be positive, but is $blockSize")
+    RandomAccessFile(this, "r").use {
+        val channel = it.getChannel()
+        val size = channel.size()
+        var position = 0L
+        while (position < size) {
+            val length = Math.min(size - position, blockSize.toLong())
+            operation(channel.map(FileChannel.MapMode.READ_ONLY, position, length))
+            position += length
+        }
+    }
+}
+
+/**
+ * Reads the regions of memory-mapped [buffers] one after another. The buffers are not copied.
+ */
+private class ByteBuffersInputStream(private val buffers: List<ByteBuffer>) : InputStream() {
+    private var index = 0
+
+    private fun current(): ByteBuffer? {
+        while (index < buffers.size()) {
+            val buffer = buffers[index]
+            if (buffer.hasRemaining())
+                return buffer
+            index++
+        }
+        return null
+    }
+
+    override fun read(): Int {
+        val buffer = current() ?: return -1
+        return buffer.get().toInt() and 0xFF
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0)
+            return 0
+        val buffer = current() ?: return -1
+        val count = Math.min(len, buffer.remaining())
+        buffer.get(b, off, count)
+        return count
+    }
+
+    override fun available(): Int = current()?.remaining() ?: 0
+}
+
+/**
+ * Copies the content of this file channel to the [target] channel using [FileChannel.transferTo],
+ * which lets the operating system move the data without copying it through the Java heap.
+ * When the channel refuses to transfer, the rest of the content is copied through a buffer of [bufferSize] bytes.
+ *
+ * @return the number of bytes copied
+ * @throws IOException if the content can't be read up to the size the channel had when the copying started
+ */
+private fun FileChannel.transferFully(target: FileChannel, bufferSize: Int): Long {
+    val size = size()
+    var position = 0L
+    while (position < size) {
+        val transferred = transferTo(position, size - position, target)
+        if (transferred <= 0)
+            break
+        position += transferred
+    }
+    if (position < size) {
+        val buffer = ByteBuffer.allocate(bufferSize)
+        while (position < size) {
+            buffer.clear()
+            buffer.limit(Math.min(bufferSize.toLong(), size - position).toInt())
+            val count = read(buffer, position)
+            if (count <= 0)
+                throw IOException("Only $position of $size bytes could be copied")
+            buffer.flip()
+            while (buffer.hasRemaining()) {
+                target.write(buffer)
+            }
+            position += count
+        }
+    }
+    return position
+}
+
+/**
+ * Copies the content of [src] file to the [dst] file through their file channels,
+ * using a buffer of [bufferSize] bytes if the channels can't transfer the content directly.
+ *
+ * @return the number of bytes copied
+ */
+internal fun copyFileContent(src: File, dst: File, bufferSize: Int): Long {
+    require(bufferSize > 0, "bufferSize should be positive, but is $bufferSize")
+    return FileInputStream(src).use<FileInputStream, Long> { input ->
+        FileOutputStream(dst).use<FileOutputStream, Long> { output ->
+            input.getChannel().transferFully(output.getChannel(), bufferSize)
+        }
+    }
+}
+
+/**
+ * Reads the entire content of this file channel into a new byte array, expecting it to have [expectedSize] bytes.
+ * If the file turns out to be longer or shorter, the remaining bytes are read or the array is truncated.
+ */
+internal fun FileChannel.readBytes(expectedSize: Int): ByteArray {
+    var result = ByteArray(expectedSize)
+    var length = 0
+    while (true) {
+        if (length == result.size()) {
+            // the file may have grown since its size was queried
+            val probe = ByteBuffer.allocate(1)
+            if (read(probe) < 0) break
+            result = result.copyOf(Math.max(result.size() * 2, defaultBlockSize))
+            result[length++] = probe.get(0)
+        }
+        val count = read(ByteBuffer.wrap(result, length, result.size() - length))
+        if (count < 0) break
+        length += count
+    }
+    return if (length == result.size()) result else result.copyOf(length)
+}
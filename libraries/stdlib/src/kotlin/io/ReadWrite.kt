@@ -42,7 +42,7 @@ public fun File.printWriter(): PrintWriter = PrintWriter(bufferedWriter())
  *
  * @return the entire content of this file as a byte array
  */
-public fun File.readBytes(): ByteArray = FileInputStream(this).use { it.readBytes(length().toInt()) }
+public fun File.readBytes(): ByteArray = FileInputStream(this).use { it.getChannel().readBytes(length().toInt()) }
 
 /**
  * Sets the content of this file as an [array] of bytes.
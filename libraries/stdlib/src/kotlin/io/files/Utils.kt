@@ -195,8 +195,10 @@ public fun File.relativePath(descendant: File): String {
  * Note: this function fails if you call it on a directory.
  * If you want to copy directories, use 'copyRecursively' function instead.
  *
+ * The content is transferred between file channels, so it is usually not copied through an intermediate buffer.
+ *
  * @param overwrite true if destination overwrite is allowed
- * @param bufferSize the buffer size to use when copying.
+ * @param bufferSize the buffer size to use when the content can't be transferred between the file channels directly.
  * @return the number of bytes copied
  * @throws NoSuchFileException if the source file doesn't exist
  * @throws FileAlreadyExistsException if the destination file already exists and 'rewrite' argument is set to false
@@ -220,13 +222,7 @@ public fun File.copyTo(dst: File, overwrite: Boolean = false, bufferSize: Int =
     }
     dst.getParentFile().mkdirs()
     dst.delete()
-    val input = FileInputStream(this)
-    return input.use<FileInputStream, Long> {
-        val output = FileOutputStream(dst)
-        output.use<FileOutputStream, Long> {
-            input.copyTo(output, bufferSize)
-        }
-    }
+    return copyFileContent(this, dst, bufferSize)
 }
 
 /**
@@ -160,6 +160,14 @@ class ArraysTest {
         expect(3.0.toFloat()) { array<Float>(1.0.toFloat(), 2.0.toFloat()).sum() }
     }
 
+    test fun average() {
+        assertTrue(array<Int>().average().isNaN())
+        expect(3.5) { array(1, 2, 3, 8).average() }
+        expect(1.5) { intArray(1, 2).average() }
+        expect(100.0) { array<Byte>(100, 100).average() }
+        expect(1500000000000.0) { longArray(1000000000000, 2000000000000).average() }
+    }
+
     test fun indexOf() {
         expect(-1) { array("cat", "dog", "bird").indexOf("mouse") }
         expect(0) { array("cat", "dog", "bird").indexOf("cat") }
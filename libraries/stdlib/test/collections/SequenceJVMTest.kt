@@ -2,6 +2,7 @@ package test.collections
 
 import org.junit.Test as test
 import kotlin.test.assertEquals
+import kotlin.test.fails
 
 class SequenceJVMTest {
 
@@ -23,4 +24,37 @@ class SequenceJVMTest {
         val charValues: Sequence<Char> = src.filterIsInstance<Char>()
         assertEquals(0, charValues.toArrayList().size())
     }
+
+    test fun parallelMapFilter() {
+        val source = (1..10000).toList()
+        val expected = source.filter { it % 3 == 0 }.map { it * 2 }
+
+        val parallel = source.parallelSequence(chunkSize = 100).filter { it % 3 == 0 }.map { it * 2 }
+        assertEquals(expected, parallel.toList())
+        assertEquals(expected.size(), parallel.count())
+        assertEquals(expected, parallel.toArrayList())
+    }
+
+    test fun parallelRange() {
+        val parallel = (1..1000).parallelSequence(chunkSize = 7)
+        assertEquals(500500, parallel.reduce { a, b -> a + b })
+        assertEquals(500, parallel.filterNot { it % 2 == 0 }.count())
+        assertEquals(0, (1..0).parallelSequence().count())
+        assertEquals(2, (Int.MAX_VALUE - 1..Int.MAX_VALUE).parallelSequence().count())
+    }
+
+    test fun parallelRangeTooLarge() {
+        fails {
+            (Int.MIN_VALUE..Int.MAX_VALUE).parallelSequence()
+        }
+        fails {
+            (0..Int.MAX_VALUE).parallelSequence()
+        }
+    }
+
+    test fun parallelReduceEmpty() {
+        fails {
+            array(1, 2, 3).parallelSequence(chunkSize = 1).filter { false }.reduce { a, b -> a + b }
+        }
+    }
 }
@@ -11,6 +11,7 @@ import kotlin.io.walkTopDown
 import kotlin.test.assertFalse
 import kotlin.test.assertNull
 import kotlin.test.assertTrue
+import kotlin.test.failsWith
 
 class FilesTest {
 
@@ -777,6 +778,26 @@ class FilesTest {
         srcFile.delete()
     }
 
+    test fun copyToLargeFile() {
+        val srcFile = createTempFile()
+        val dstFile = createTempFile()
+        val bytes = ByteArray(100000)
+        for (i in bytes.indices) {
+            bytes[i] = i.toByte()
+        }
+        srcFile.writeBytes(bytes)
+
+        assertEquals(bytes.size().toLong(), srcFile.copyTo(dstFile, overwrite = true, bufferSize = 7))
+        assertEquals(bytes.toList(), dstFile.readBytes().toList())
+
+        failsWith(javaClass<IllegalArgumentException>()) {
+            srcFile.copyTo(dstFile, overwrite = true, bufferSize = 0)
+        }
+
+        srcFile.delete()
+        dstFile.delete()
+    }
+
     test fun deleteRecursively() {
         val dir = createTempDir()
         dir.delete()
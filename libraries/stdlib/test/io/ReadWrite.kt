@@ -172,4 +172,25 @@ class ReadWriteTest {
         val text2 = url.readText("UTF8")
         assertFalse(text2.isEmpty())
     }
+
+    test fun mappedFile() {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        file.writeText("Hello\nWorld\n\u0444\u0430\u0439\u043b")
+
+        val lines = file.mappedLines(blockSize = 3).toList()
+        assertEquals(arrayListOf("Hello", "World", "\u0444\u0430\u0439\u043b"), lines)
+        // the sequence can be iterated more than once
+        assertEquals(lines, file.mappedLines().toList())
+
+        var total = 0
+        file.forEachMappedBlock({ total += it.remaining() }, 5)
+        assertEquals(file.length().toInt(), total)
+        assertEquals(file.length().toInt(), file.readBytes().size())
+
+        file.writeText("")
+        assertEquals(0, file.readBytes().size())
+        assertFalse(file.mappedLines().iterator().hasNext())
+
+        file.delete()
+    }
 }
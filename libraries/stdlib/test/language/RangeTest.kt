@@ -214,4 +214,15 @@ public class RangeTest {
 
         assertFalse(range.isEmpty())
     }
-}
\ No newline at end of file
+
+    test fun sumAndAverage() {
+        assertEquals(55, (1..10).sum())
+        assertEquals(22, (10 downTo 1 step 3).sum())
+        assertEquals(5000000050000000L, (1L..100000000L).sum())
+        assertEquals(0, (1..0).sum())
+
+        assertEquals(5.5, (1..10).average())
+        assertEquals(5.5, (10 downTo 1 step 3).average())
+        assertTrue((1..0).average().isNaN())
+    }
+}
@@ -33,6 +33,12 @@ fun generateCollectionsAPI(outDir: File) {
             build(builder, ArraysOfObjects, numeric)
             build(builder, ArraysOfPrimitives, numeric)
         }
+
+        // ranges and progressions are iterated with a counted loop, so their elements are never boxed
+        for (numeric in listOf(PrimitiveType.Int, PrimitiveType.Long)) {
+            build(builder, RangesOfPrimitives, numeric)
+            build(builder, ProgressionsOfPrimitives, numeric)
+        }
         builder.toString()
     }
 
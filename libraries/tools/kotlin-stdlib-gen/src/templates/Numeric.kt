@@ -18,6 +18,43 @@ fun numeric(): List<GenericFunction> {
             return sum
             """
         }
+        body(RangesOfPrimitives, ProgressionsOfPrimitives) {
+            """
+            var sum: SUM = ZERO
+            for (element in this) {
+                sum += element
+            }
+            return sum
+            """
+        }
+    }
+
+    templates add f("average()") {
+        doc { "Returns an average value of elements in the collection, or NaN if the collection is empty" }
+        returns("Double")
+        body {
+            """
+            val iterator = iterator()
+            var sum: Double = 0.0
+            var count: Int = 0
+            while (iterator.hasNext()) {
+                sum += iterator.next()
+                count += 1
+            }
+            return if (count == 0) Double.NaN else sum / count
+            """
+        }
+        body(RangesOfPrimitives, ProgressionsOfPrimitives) {
+            """
+            var sum: Double = 0.0
+            var count: Int = 0
+            for (element in this) {
+                sum += element
+                count += 1
+            }
+            return if (count == 0) Double.NaN else sum / count
+            """
+        }
     }
 
     return templates